@@ -0,0 +1,86 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Positions and games shared by the benchmarks, so that every benchmark measures against the same boards
+ */
+final class BenchmarkPositions {
+
+    // A quiet middlegame with every piece type still on the board (position 6 of the Chess Programming Wiki perft suite)
+    static final String MIDDLEGAME_FEN = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+    // White to move and checkmated by a queen on g2 protected by a knight on e3
+    static final String CHECKMATE_FEN = "7k/8/8/8/8/4n3/6q1/7K w - - 0 1";
+
+    private BenchmarkPositions() {
+    }
+
+    static ChessGame middlegame() {
+        return ChessGame.fromFen(MIDDLEGAME_FEN);
+    }
+
+    static ChessGame checkmate() {
+        return ChessGame.fromFen(CHECKMATE_FEN);
+    }
+
+    /**
+     * Plays random legal moves from the starting position, retrying with the next seed until a game
+     * reaches the requested length without ending, so the moves can always be replayed in full.
+     *
+     * @param plies how many moves the game should have
+     * @param seed  the seed of the first attempt, so the same moves are chosen on every run
+     * @return the moves of the game, in the order they were played
+     */
+    static List<ChessMove> randomGame(int plies, long seed) {
+        for (long attemptSeed = seed; ; attemptSeed++) {
+            Random random = new Random(attemptSeed);
+            ChessGame game = new ChessGame();
+            List<ChessMove> moves = new ArrayList<>(plies);
+            while (moves.size() < plies && !game.evaluateStatus(game.getTeamTurn()).isGameOver()) {
+                List<ChessMove> legalMoves = legalMoves(game);
+                ChessMove move = legalMoves.get(random.nextInt(legalMoves.size()));
+                try {
+                    game.makeMove(move);
+                } catch (InvalidMoveException e) {
+                    throw new IllegalStateException("A move returned by validMoves() was rejected: " + move, e);
+                }
+                moves.add(move);
+            }
+            if (moves.size() == plies && !game.evaluateStatus(game.getTeamTurn()).isGameOver()) {
+                return moves;
+            }
+        }
+    }
+
+    static List<ChessMove> legalMoves(ChessGame game) {
+        List<ChessMove> legalMoves = new ArrayList<>();
+        for (ChessPosition position : teamPositions(game, game.getTeamTurn())) {
+            legalMoves.addAll(game.validMoves(position));
+        }
+        return legalMoves;
+    }
+
+    static ChessPosition[] teamPositions(ChessGame game, ChessGame.TeamColor teamColor) {
+        ChessBoard board = game.getBoard();
+        List<ChessPosition> positions = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int column = 1; column <= 8; column++) {
+                ChessPosition position = new ChessPosition(row, column);
+                ChessPiece piece = board.getPiece(position);
+                if (piece != null && piece.getTeamColor() == teamColor) {
+                    positions.add(position);
+                }
+            }
+        }
+        return positions.toArray(new ChessPosition[0]);
+    }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ui.BoardRenderer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing the board in the client, which happens after every move either player makes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardRendererBenchmark {
+
+    private ChessGame game;
+
+    @Setup
+    public void setup() {
+        game = BenchmarkPositions.middlegame();
+    }
+
+    @Benchmark
+    public String renderBoardWhite() {
+        return BoardRenderer.renderBoard(game, ChessGame.TeamColor.WHITE);
+    }
+
+    // Black's view also rotates the board
+    @Benchmark
+    public String renderBoardBlack() {
+        return BoardRenderer.renderBoard(game, ChessGame.TeamColor.BLACK);
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying the board and searching it for pieces
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChessBoardBenchmark {
+
+    private ChessBoard board;
+    private ChessPiece whitePawn;
+    private ChessPiece blackKing;
+
+    @Setup
+    public void setup() {
+        board = BenchmarkPositions.middlegame().getBoard();
+        whitePawn = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        blackKing = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+    }
+
+    @Benchmark
+    public ChessBoard deepCopy() {
+        return board.deepCopy();
+    }
+
+    @Benchmark
+    public Collection<ChessPosition> findPiecePawns() {
+        return board.findPiece(whitePawn);
+    }
+
+    @Benchmark
+    public Collection<ChessPosition> findPieceKing() {
+        return board.findPiece(blackKing);
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation and game status checks through the public ChessGame API
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChessGameBenchmark {
+
+    private ChessGame middlegame;
+    private ChessGame checkmate;
+    private ChessPosition[] whitePiecePositions;
+    private ChessMove knightMove;
+    private MoveList moveBuffer;
+
+    @Setup
+    public void setup() {
+        middlegame = BenchmarkPositions.middlegame();
+        checkmate = BenchmarkPositions.checkmate();
+        whitePiecePositions = BenchmarkPositions.teamPositions(middlegame, ChessGame.TeamColor.WHITE);
+        moveBuffer = new MoveList();
+        // Nf3 takes the pawn on e5
+        knightMove = new ChessMove(new ChessPosition(3, 6), new ChessPosition(5, 5), null);
+        if (middlegame.getBoard().getPiece(knightMove.getStartPosition()).getPieceType() != ChessPiece.PieceType.KNIGHT) {
+            throw new IllegalStateException("The benchmark move does not start on a knight");
+        }
+    }
+
+    // Asks for the moves of every white piece, as a client highlighting moves or an engine would
+    @Benchmark
+    public void validMovesForEveryPiece(Blackhole blackhole) {
+        for (ChessPosition position : whitePiecePositions) {
+            blackhole.consume(middlegame.validMoves(position));
+        }
+    }
+
+    // The same moves as validMovesForEveryPiece, found in one pass into a reused buffer
+    @Benchmark
+    public int allLegalMoves() {
+        return middlegame.allLegalMoves(ChessGame.TeamColor.WHITE, moveBuffer);
+    }
+
+    // The game is copied first so every call starts from the same position; see copyGame for the copy alone
+    @Benchmark
+    public ChessGame makeMoveOnCopy() throws InvalidMoveException {
+        ChessGame gameCopy = middlegame.deepCopy();
+        gameCopy.makeMove(knightMove);
+        return gameCopy;
+    }
+
+    @Benchmark
+    public ChessGame copyGame() {
+        return middlegame.deepCopy();
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMiddlegame() {
+        return middlegame.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMated() {
+        return checkmate.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.engine.MaterialEvaluator;
+import chess.engine.NnueEvaluator;
+import chess.engine.NnueNetwork;
+import chess.engine.PieceSquareEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One evaluation of the middlegame position, as the search runs at every leaf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    // A typical size for the hidden layer of a small network
+    private static final int NETWORK_HIDDEN_SIZE = 256;
+
+    private ChessBoard middlegameBoard;
+    private MaterialEvaluator materialEvaluator;
+    private PieceSquareEvaluator pieceSquareEvaluator;
+    private NnueEvaluator nnueEvaluator;
+    private int knightMove;
+
+    @Setup
+    public void setup() throws IOException {
+        middlegameBoard = BenchmarkPositions.middlegame().getBoard();
+        materialEvaluator = new MaterialEvaluator();
+        pieceSquareEvaluator = new PieceSquareEvaluator();
+        nnueEvaluator = new NnueEvaluator(randomNetwork(new Random(240)));
+        nnueEvaluator.startSearch(middlegameBoard);
+        // Nf3 takes the pawn on e5
+        knightMove = PackedMove.of(21, 36, null, true);
+    }
+
+    // Counts the pieces of each bitboard
+    @Benchmark
+    public int material() {
+        return materialEvaluator.evaluate(middlegameBoard, ChessGame.TeamColor.WHITE);
+    }
+
+    // Reads back the sums the board keeps as moves are made
+    @Benchmark
+    public int pieceSquareTables() {
+        return pieceSquareEvaluator.evaluate(middlegameBoard, ChessGame.TeamColor.WHITE);
+    }
+
+    // Updates the accumulators for a capture, scores the position it leads to and takes the move back,
+    // as the search does at each leaf
+    @Benchmark
+    public int nnueMoveAndEvaluate() {
+        nnueEvaluator.makeMove(middlegameBoard, knightMove);
+        middlegameBoard.makeMove(knightMove);
+        int score = nnueEvaluator.evaluate(middlegameBoard, ChessGame.TeamColor.BLACK);
+        middlegameBoard.unmakeMove();
+        nnueEvaluator.unmakeMove();
+        return score;
+    }
+
+    // Untrained weights score positions no better than chance, but cost the same to run as trained ones
+    private static NnueNetwork randomNetwork(Random random) throws IOException {
+        int weightCount = NnueNetwork.FEATURE_COUNT * NETWORK_HIDDEN_SIZE + 3 * NETWORK_HIDDEN_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(12 + 2 * weightCount + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[]{'C', 'N', 'U', 'E'}).putInt(1).putInt(NETWORK_HIDDEN_SIZE);
+        for (int i = 0; i < weightCount; i++) {
+            buffer.putShort((short) (random.nextInt(61) - 20));
+        }
+        buffer.putInt(0);
+        return NnueNetwork.read(new ByteArrayInputStream(buffer.array()));
+    }
+}
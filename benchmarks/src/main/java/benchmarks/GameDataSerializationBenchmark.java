@@ -0,0 +1,102 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessJson;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import model.GameData;
+import model.GameDataCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting GameData to and from JSON with the chess adapters of ChessJson, which the server does whenever a
+ * game is stored or sent to a client. For comparison, the same GameData is also converted with Gson's default
+ * reflection and to and from its binary encoding, and the game's position alone to and from FEN.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameDataSerializationBenchmark {
+
+    // Long enough for the move history to make up a realistic share of the JSON
+    private static final int GAME_PLIES = 40;
+
+    private Gson serializer;
+    private Gson reflectiveSerializer;
+    private GameData gameData;
+    private String gameDataJson;
+    private String reflectiveGameDataJson;
+    private ChessGame game;
+    private String gameFen;
+    private byte[] encodedGameData;
+
+    @Setup
+    public void setup() throws InvalidMoveException {
+        serializer = ChessJson.gson();
+        reflectiveSerializer = new Gson();
+        game = new ChessGame();
+        for (ChessMove move : BenchmarkPositions.randomGame(GAME_PLIES, 240)) {
+            game.makeMove(move);
+        }
+        gameData = new GameData(1234, "whitePlayer", "blackPlayer", "benchmark game", game, true);
+        gameDataJson = serializer.toJson(gameData);
+        reflectiveGameDataJson = reflectiveSerializer.toJson(gameData);
+        gameFen = game.toFen();
+        encodedGameData = GameDataCodec.encode(gameData);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return serializer.toJson(gameData);
+    }
+
+    @Benchmark
+    public GameData fromJson() {
+        return serializer.fromJson(gameDataJson, GameData.class);
+    }
+
+    @Benchmark
+    public String toJsonReflective() {
+        return reflectiveSerializer.toJson(gameData);
+    }
+
+    @Benchmark
+    public GameData fromJsonReflective() {
+        return reflectiveSerializer.fromJson(reflectiveGameDataJson, GameData.class);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return GameDataCodec.encode(gameData);
+    }
+
+    @Benchmark
+    public GameData decode() {
+        return GameDataCodec.decode(encodedGameData);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return game.toFen();
+    }
+
+    @Benchmark
+    public ChessGame fromFen() {
+        return ChessGame.fromFen(gameFen);
+    }
+}
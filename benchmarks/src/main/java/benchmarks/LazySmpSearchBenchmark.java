@@ -0,0 +1,67 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.LazySmpSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to reach a fixed depth in the middlegame position with more and more search threads. Comparing
+ * the thread counts shows how well the search scales; the scaling is limited by the cores of the machine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LazySmpSearchBenchmark {
+
+    private static final SearchLimits DEPTH_LIMIT = SearchLimits.ofDepth(6);
+
+    @Param({"1", "2", "4", "8"})
+    private int threadCount;
+
+    private ChessGame middlegame;
+    private TranspositionTable transpositionTable;
+    private LazySmpSearch search;
+
+    @Setup
+    public void setup() {
+        middlegame = BenchmarkPositions.middlegame();
+        transpositionTable = new TranspositionTable(64);
+        search = new LazySmpSearch(threadCount, transpositionTable);
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    // Otherwise every search after the first would find its answer already stored
+    @Setup(Level.Invocation)
+    public void clearTranspositionTable() {
+        transpositionTable.clear();
+    }
+
+    @Benchmark
+    public SearchResult searchToFixedDepth() {
+        return search.search(middlegame, DEPTH_LIMIT);
+    }
+}
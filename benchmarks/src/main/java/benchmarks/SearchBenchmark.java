@@ -0,0 +1,58 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.MaterialEvaluator;
+import chess.engine.SearchEngine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth searches of the middlegame position, as a bot choosing a move would run them
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final SearchLimits DEPTH_LIMIT = SearchLimits.ofDepth(5);
+
+    private ChessGame middlegame;
+    private TranspositionTable transpositionTable;
+    private SearchEngine engine;
+
+    @Setup
+    public void setup() {
+        middlegame = BenchmarkPositions.middlegame();
+        transpositionTable = new TranspositionTable(16);
+        engine = new SearchEngine(new MaterialEvaluator(), transpositionTable);
+    }
+
+    // Otherwise every search after the first would find its answer already stored
+    @Setup(Level.Invocation)
+    public void clearTranspositionTable() {
+        transpositionTable.clear();
+    }
+
+    // The engine is reused, as it would be between the moves of one game, so its move ordering tables carry over
+    @Benchmark
+    public SearchResult searchToFixedDepth() {
+        return engine.search(middlegame, DEPTH_LIMIT);
+    }
+}
@@ -0,0 +1,151 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessJson;
+import chess.ChessMove;
+import com.google.gson.Gson;
+import dataaccess.DataAccessMemory;
+import io.javalin.websocket.WsConnectContext;
+import io.javalin.websocket.WsMessageContext;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import server.websocket.UserWSHandler;
+import websocket.commands.UserGameCommand;
+import websocket.commands.UserMoveCommand;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The server's handling of MAKE_MOVE messages from two connected players, backed by DataAccessMemory.
+ * <p>
+ * Every move changes the game and lengthens its move history, which the server sends back to both
+ * players, so the same message cannot simply be handled over and over. Instead each invocation plays
+ * a whole game from the start in a freshly set up server, and the results are reported per move. The
+ * setup is not timed, though what it allocates is small next to the game and is included by -prof gc.
+ * The websocket sessions are stand-ins that discard what the server sends, apart from counting error
+ * messages so that a run in which moves were rejected fails rather than measuring the wrong thing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserWSHandlerBenchmark {
+
+    private static final int GAME_PLIES = 60;
+
+    private static final String WHITE_SESSION_ID = "white-session";
+    private static final String BLACK_SESSION_ID = "black-session";
+
+    private final Gson serializer = ChessJson.gson();
+    private List<ChessMove> gameMoves;
+    private PrintStream originalOut;
+
+    private Session session;
+    private int errorMessageCount;
+    private UserWSHandler handler;
+    private String[] moveMessages;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        gameMoves = BenchmarkPositions.randomGame(GAME_PLIES, 240);
+        // The handler logs every message it handles, which would otherwise dominate the measurement
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(
+                RemoteEndpoint.class.getClassLoader(), new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendString") && ((String) args[0]).contains("\"serverMessageType\":\"ERROR\"")) {
+                        errorMessageCount++;
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+        session = (Session) Proxy.newProxyInstance(
+                Session.class.getClassLoader(), new Class<?>[]{Session.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getRemote")) {
+                        return remote;
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        System.setOut(originalOut);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupGame() {
+        DataAccessMemory dataAccess = new DataAccessMemory();
+        String whiteAuthToken = dataAccess.createAuth("whitePlayer").authToken();
+        String blackAuthToken = dataAccess.createAuth("blackPlayer").authToken();
+        int gameID = dataAccess.createGame("benchmark game");
+        dataAccess.joinGame(gameID, "whitePlayer", ChessGame.TeamColor.WHITE);
+        dataAccess.joinGame(gameID, "blackPlayer", ChessGame.TeamColor.BLACK);
+
+        handler = new UserWSHandler(dataAccess);
+        connect(WHITE_SESSION_ID, whiteAuthToken, gameID);
+        connect(BLACK_SESSION_ID, blackAuthToken, gameID);
+
+        moveMessages = new String[GAME_PLIES];
+        for (int ply = 0; ply < GAME_PLIES; ply++) {
+            String authToken = (ply % 2 == 0) ? whiteAuthToken : blackAuthToken;
+            moveMessages[ply] = serializer.toJson(new UserMoveCommand(UserGameCommand.CommandType.MAKE_MOVE, authToken, gameID, gameMoves.get(ply)));
+        }
+        errorMessageCount = 0;
+    }
+
+    @TearDown(Level.Invocation)
+    public void checkGame() {
+        if (errorMessageCount > 0) {
+            throw new IllegalStateException("The server sent " + errorMessageCount + " errors while the game was played");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAME_PLIES)
+    public void handleMakeMove() {
+        for (int ply = 0; ply < GAME_PLIES; ply++) {
+            String sessionID = (ply % 2 == 0) ? WHITE_SESSION_ID : BLACK_SESSION_ID;
+            handler.handleMessage(new WsMessageContext(sessionID, session, moveMessages[ply]));
+        }
+    }
+
+    private void connect(String sessionID, String authToken, int gameID) {
+        WsConnectContext connectContext = new WsConnectContext(sessionID, session);
+        handler.handleConnect(connectContext);
+        // Pings would only reach the stand-in session, on a timer thread outside the measurement
+        connectContext.disableAutomaticPings();
+        String connectMessage = serializer.toJson(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID));
+        handler.handleMessage(new WsMessageContext(sessionID, session, connectMessage));
+    }
+
+    private static Object defaultValue(Class<?> returnType) {
+        if (returnType == boolean.class) {
+            return false;
+        } else if (returnType == int.class) {
+            return 0;
+        } else if (returnType == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -1,6 +1,6 @@
 package server;
 
-import com.google.gson.Gson;
+import chess.ChessJson;
 
 import endpointresponses.CreateGameResponse;
 import endpointresponses.GameListResponse;
@@ -113,7 +113,7 @@ public class ServerFacade {
 
     private HttpRequest.BodyPublisher makeRequestBody(Object request) {
         if (request != null) {
-            return HttpRequest.BodyPublishers.ofString(new Gson().toJson(request));
+            return HttpRequest.BodyPublishers.ofString(ChessJson.gson().toJson(request));
         } else {
             return HttpRequest.BodyPublishers.noBody();
         }
@@ -134,7 +134,7 @@ public class ServerFacade {
         if (responseStatus != StatusReader.ResponseStatus.GOOD) {
             if (responseBody != null) {
                 record ResponseErrorMessage(String message) {}
-                ResponseErrorMessage responseErrorMessage = new Gson().fromJson(responseBody, ResponseErrorMessage.class);
+                ResponseErrorMessage responseErrorMessage = ChessJson.gson().fromJson(responseBody, ResponseErrorMessage.class);
                 throw new ResponseException(responseStatus, responseErrorMessage.message);
             }
 
@@ -142,7 +142,7 @@ public class ServerFacade {
         }
 
         if (responseClass != null) {
-            return new Gson().fromJson(responseBody, responseClass);
+            return ChessJson.gson().fromJson(responseBody, responseClass);
         }
 
         return null;
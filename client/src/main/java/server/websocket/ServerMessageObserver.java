@@ -1,5 +1,6 @@
 package server.websocket;
 
+import chess.ChessJson;
 import com.google.gson.Gson;
 import model.GameData;
 import ui.BoardRenderer;
@@ -15,7 +16,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 
 public class ServerMessageObserver {
 
-    private static final Gson SERIALIZER = new Gson();
+    private static final Gson SERIALIZER = ChessJson.gson();
 
     private final BlockingQueue<String> blockingQueue = new LinkedBlockingQueue<>();
     private final ActiveGameTracker activeGameTracker;
@@ -1,5 +1,6 @@
 package server.websocket;
 
+import chess.ChessJson;
 import chess.ChessMove;
 import com.google.gson.Gson;
 import jakarta.websocket.*;
@@ -12,7 +13,7 @@ import java.net.URI;
 
 public class WebSocketFacade extends Endpoint {
 
-    private static final Gson SERIALIZER = new Gson();
+    private static final Gson SERIALIZER = ChessJson.gson();
 
     private final Session session;
     private final ServerMessageObserver serverMessageObserver;
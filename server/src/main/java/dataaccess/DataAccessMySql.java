@@ -1,9 +1,9 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessJson;
 import chess.ChessMove;
 import chess.InvalidMoveException;
-import com.google.gson.Gson;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
@@ -204,7 +204,7 @@ public class DataAccessMySql implements DataAccess {
                 UPDATE game_data SET game = ? WHERE gameID = ?
                 """;
                 try (PreparedStatement preparedUpdateStatement = connection.prepareStatement(gameUpdateStatement)) {
-                    preparedUpdateStatement.setString(1, new Gson().toJson(gameData));
+                    preparedUpdateStatement.setString(1, ChessJson.gson().toJson(gameData));
                     preparedUpdateStatement.setInt(2, gameID);
                     preparedUpdateStatement.executeUpdate();
                 }
@@ -259,7 +259,7 @@ public class DataAccessMySql implements DataAccess {
                     """.formatted(colorUser);
             try (PreparedStatement preparedStatement = connection.prepareStatement(gameUpdateStatement)) {
                 preparedStatement.setString(1, username);
-                preparedStatement.setString(2, new Gson().toJson(updatedGameData));
+                preparedStatement.setString(2, ChessJson.gson().toJson(updatedGameData));
                 preparedStatement.setInt(3, gameID);
                 preparedStatement.executeUpdate();
             }
@@ -311,7 +311,7 @@ public class DataAccessMySql implements DataAccess {
                     UPDATE game_data SET game = ? WHERE gameID = ?
                     """;
             try (PreparedStatement preparedStatement = connection.prepareStatement(gameUpdateStatement)) {
-                preparedStatement.setString(1, new Gson().toJson(gameData));
+                preparedStatement.setString(1, ChessJson.gson().toJson(gameData));
                 preparedStatement.setInt(2, gameID);
                 preparedStatement.executeUpdate();
             }
@@ -334,7 +334,7 @@ public class DataAccessMySql implements DataAccess {
                     UPDATE game_data SET game = ? WHERE gameID = ?
                     """;
             try (PreparedStatement preparedStatement = connection.prepareStatement(gameUpdateStatement)) {
-                preparedStatement.setString(1, new Gson().toJson(updatedGameData));
+                preparedStatement.setString(1, ChessJson.gson().toJson(updatedGameData));
                 preparedStatement.setInt(2, gameID);
                 preparedStatement.executeUpdate();
             }
@@ -366,7 +366,7 @@ public class DataAccessMySql implements DataAccess {
                     """.formatted(userColor);
             try (PreparedStatement preparedStatement = connection.prepareStatement(gameUpdateStatement)) {
                 preparedStatement.setString(1, null);
-                preparedStatement.setString(2, new Gson().toJson(updatedGameData));
+                preparedStatement.setString(2, ChessJson.gson().toJson(updatedGameData));
                 preparedStatement.setInt(3, gameID);
                 preparedStatement.executeUpdate();
             }
@@ -387,7 +387,7 @@ public class DataAccessMySql implements DataAccess {
                     ArrayList<GameData> gameList = new ArrayList<>();
                     while (rs.next()) {
                         String gameJson = rs.getString("game");
-                        gameList.add(new Gson().fromJson(gameJson, GameData.class));
+                        gameList.add(ChessJson.gson().fromJson(gameJson, GameData.class));
                     }
                     return gameList;
                 }
@@ -408,7 +408,7 @@ public class DataAccessMySql implements DataAccess {
             try (ResultSet rs = preparedStatement.executeQuery()) {
                 rs.next();
                 String gameJson = rs.getString("game");
-                gameData = new Gson().fromJson(gameJson, GameData.class);
+                gameData = ChessJson.gson().fromJson(gameJson, GameData.class);
             }
         }
         return gameData;
@@ -1,5 +1,6 @@
 package server;
 
+import chess.ChessJson;
 import com.google.gson.Gson;
 import dataaccess.*;
 import endpointresponses.CreateGameResponse;
@@ -71,7 +72,7 @@ public class Server {
     }
 
     private void register(Context ctx) {
-        Gson serializer = new Gson();
+        Gson serializer = ChessJson.gson();
         String requestJson = ctx.body();
 
         UserData user = serializer.fromJson(requestJson, UserData.class);
@@ -89,7 +90,7 @@ public class Server {
     }
 
     private void login(Context ctx) {
-        Gson serializer = new Gson();
+        Gson serializer = ChessJson.gson();
         String requestJson = ctx.body();
 
         LoginBody loginBody = serializer.fromJson(requestJson, LoginBody.class);
@@ -107,7 +108,7 @@ public class Server {
     }
 
     private void logout(Context ctx) {
-        Gson serializer = new Gson();
+        Gson serializer = ChessJson.gson();
         String authToken = ctx.header("authorization");
         try {
             userService.logout(authToken);
@@ -121,7 +122,7 @@ public class Server {
     }
 
     private void listGames(Context ctx) {
-        Gson serializer = new Gson();
+        Gson serializer = ChessJson.gson();
         String authToken = ctx.header("authorization");
         try {
             ArrayList<GameData> gameList = userService.list(authToken);
@@ -136,7 +137,7 @@ public class Server {
     }
 
     private void createGame(Context ctx) {
-        Gson serializer = new Gson();
+        Gson serializer = ChessJson.gson();
         String authToken = ctx.header("authorization");
         String requestJson = ctx.body();
 
@@ -156,7 +157,7 @@ public class Server {
     }
 
     private void joinGame(Context ctx) {
-        Gson serializer = new Gson();
+        Gson serializer = ChessJson.gson();
         String authToken = ctx.header("authorization");
         String requestJson = ctx.body();
         JoinGameBody joinGameBody = serializer.fromJson(requestJson, JoinGameBody.class);
@@ -180,7 +181,7 @@ public class Server {
         try {
             userService.clear();
         } catch (DatabaseException e) {
-            Gson serializer = new Gson();
+            Gson serializer = ChessJson.gson();
             report500Error(ctx, serializer, e);
         }
     }
@@ -1,5 +1,6 @@
 package server.websocket;
 
+import chess.ChessJson;
 import com.google.gson.Gson;
 import io.javalin.websocket.WsContext;
 import model.GameData;
@@ -10,7 +11,7 @@ import websocket.messages.ServerNotificationMessage;
 
 public class ServerCommandSender {
 
-    private static final Gson SERIALIZER = new Gson();
+    private static final Gson SERIALIZER = ChessJson.gson();
 
     public static void sendLoadGame(WsContext ctx, GameData game) {
         System.out.println("Sending LOAD_GAME message..." + game.toString());
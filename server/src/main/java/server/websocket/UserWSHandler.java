@@ -1,6 +1,7 @@
 package server.websocket;
 
 import chess.ChessGame;
+import chess.ChessJson;
 import chess.ChessMove;
 import chess.ChessPiece;
 import chess.InvalidMoveException;
@@ -56,7 +57,7 @@ public class UserWSHandler implements WsConnectHandler, WsMessageHandler, WsClos
 
     @Override
     public void handleMessage(WsMessageContext ctxMessage) {
-        Gson serializer = new Gson();
+        Gson serializer = ChessJson.gson();
         String wsMessageJson = ctxMessage.message();
         String wsSessionID = ctxMessage.sessionId();
 
@@ -256,18 +257,28 @@ public class UserWSHandler implements WsConnectHandler, WsMessageHandler, WsClos
                     }
                 }
 
-                // Check if the move has resulted in a stalemate, checkmate or check for the enemy team
+                // Check if the move has resulted in a stalemate, checkmate, draw or check for the enemy team
                 ChessGame.TeamColor enemyColor = chessGame.getTeamTurn();
                 String gameConditionNotification = null;
-                if (chessGame.isInStalemate(enemyColor)) {
+                ChessGame.GameStatus enemyStatus = chessGame.evaluateStatus(enemyColor);
+                if (enemyStatus == ChessGame.GameStatus.STALEMATE) {
                     gameConditionNotification = String.format("This move has put the game into a stalemate between %s and %s",
                                                               rootUsername, opponentUsername);
                     dataAccess.endGame(activeGameID);
-                } else if (chessGame.isInCheckmate(enemyColor)) {
+                } else if (enemyStatus == ChessGame.GameStatus.CHECKMATE) {
                     gameConditionNotification = String.format("This move by %s has put the %s player, %s, into Checkmate!",
                                                               rootUsername, enemyColor, opponentUsername);
                     dataAccess.endGame(activeGameID);
-                } else if (chessGame.isInCheck(enemyColor)) {
+                } else if (enemyStatus.isDraw()) {
+                    String drawReason = switch (enemyStatus) {
+                        case DRAW_BY_REPETITION -> "the same position occurring three times";
+                        case DRAW_BY_FIFTY_MOVES -> "fifty moves passing without a capture or pawn move";
+                        default -> "neither player having enough pieces left to checkmate";
+                    };
+                    gameConditionNotification = String.format("This move has drawn the game between %s and %s by %s",
+                                                              rootUsername, opponentUsername, drawReason);
+                    dataAccess.endGame(activeGameID);
+                } else if (enemyStatus == ChessGame.GameStatus.CHECK) {
                     gameConditionNotification = String.format("This move by %s has put the %s player, %s, into Check!",
                                                               rootUsername, enemyColor, opponentUsername);
                 }
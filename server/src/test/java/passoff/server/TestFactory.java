@@ -1,5 +1,6 @@
 package passoff.server;
 
+import chess.ChessJson;
 import com.google.gson.GsonBuilder;
 
 public class TestFactory {
@@ -33,7 +34,8 @@ public class TestFactory {
          * or deserialize chess objects like ChessMove, you may add type adapters here.
          */
         GsonBuilder builder = new GsonBuilder();
-        // builder.registerTypeAdapter(ChessMove.class, /*type adapter or json serializer */);
+        // The server writes games and moves with the adapters of ChessJson, so the tests read them the same way
+        ChessJson.registerTypeAdapters(builder);
         return builder;
     }
 
@@ -0,0 +1,268 @@
+package chess;
+
+/**
+ * Precomputed attack bitboards for every piece type, built once when the class is loaded.
+ * <p>
+ * Knights, kings and pawns attack a fixed set of squares from each starting square, so their
+ * attacks are stored directly in one table entry per square. Rooks and bishops (and so queens)
+ * are stopped by the first piece along each ray, so their attacks depend on the occupancy of the
+ * board. For those, the "magic bitboard" technique is used: the occupancy of the squares that could
+ * block the piece is multiplied by a per-square magic number, and the top bits of the product index
+ * a table holding the attack set for that exact arrangement of blockers. The magic numbers are
+ * searched for at startup from fixed seeds, so the tables are identical on every run.
+ */
+public final class AttackTables {
+
+    // The movement geometry each table is built from is defined by the rules of the corresponding piece
+    private static final int[][] KNIGHT_OFFSETS = KnightRules.OFFSETS;
+    private static final int[][] KING_OFFSETS = KingRules.OFFSETS;
+    private static final int[][] ROOK_DIRECTIONS = RookRules.DIRECTIONS;
+    private static final int[][] BISHOP_DIRECTIONS = BishopRules.DIRECTIONS;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    // Indexed by TeamColor ordinal, then by square
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    // Indexed by two squares, only filled in when the squares share a row, column or diagonal
+    private static final long[][] SQUARES_BETWEEN = new long[64][64];
+    private static final long[][] LINE_THROUGH = new long[64][64];
+
+    // Seeds for the magic number search, one per row. These particular values are known to find
+    // working magics within a few hundred candidates, which keeps class loading fast.
+    private static final long[] MAGIC_SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+    private static final SliderTable ROOK_TABLE = new SliderTable(ROOK_DIRECTIONS);
+    private static final SliderTable BISHOP_TABLE = new SliderTable(BISHOP_DIRECTIONS);
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = stepAttacks(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = stepAttacks(square, new int[][]{{-1, -1}, {-1, 1}});
+        }
+        for (int firstSquare = 0; firstSquare < 64; firstSquare++) {
+            for (int secondSquare = 0; secondSquare < 64; secondSquare++) {
+                for (int[][] directions : new int[][][]{ROOK_DIRECTIONS, BISHOP_DIRECTIONS}) {
+                    long firstBit = Bitboards.squareBit(firstSquare);
+                    long secondBit = Bitboards.squareBit(secondSquare);
+                    if ((rayAttacks(firstSquare, 0L, directions) & secondBit) == 0) {
+                        continue;
+                    }
+                    // Looking from each square toward the other, the rays overlap only on the squares in between
+                    SQUARES_BETWEEN[firstSquare][secondSquare] = rayAttacks(firstSquare, secondBit, directions)
+                            & rayAttacks(secondSquare, firstBit, directions);
+                    LINE_THROUGH[firstSquare][secondSquare] = (rayAttacks(firstSquare, 0L, directions)
+                            & rayAttacks(secondSquare, 0L, directions)) | firstBit | secondBit;
+                }
+            }
+        }
+    }
+
+    private AttackTables() {
+    }
+
+    /**
+     * @return the squares a knight on the given square attacks
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a king on the given square attacks
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on the given square attacks diagonally
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @param occupancy every occupied square on the board, of either color
+     * @return the squares a rook on the given square attacks, up to and including the first blocker on each ray
+     */
+    public static long rookAttacks(int square, long occupancy) {
+        return ROOK_TABLE.attacks(square, occupancy);
+    }
+
+    /**
+     * @param occupancy every occupied square on the board, of either color
+     * @return the squares a bishop on the given square attacks, up to and including the first blocker on each ray
+     */
+    public static long bishopAttacks(int square, long occupancy) {
+        return BISHOP_TABLE.attacks(square, occupancy);
+    }
+
+    /**
+     * @param occupancy every occupied square on the board, of either color
+     * @return the squares a queen on the given square attacks, up to and including the first blocker on each ray
+     */
+    public static long queenAttacks(int square, long occupancy) {
+        return ROOK_TABLE.attacks(square, occupancy) | BISHOP_TABLE.attacks(square, occupancy);
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared row, column or diagonal, or an empty
+     * bitboard if the squares are not aligned
+     */
+    public static long squaresBetween(int firstSquare, int secondSquare) {
+        return SQUARES_BETWEEN[firstSquare][secondSquare];
+    }
+
+    /**
+     * @return every square of the full row, column or diagonal passing through both squares, edge to edge,
+     * or an empty bitboard if the squares are not aligned
+     */
+    public static long lineThrough(int firstSquare, int secondSquare) {
+        return LINE_THROUGH[firstSquare][secondSquare];
+    }
+
+    // Sets every square one offset away from the square, skipping any offset that would leave the board
+    private static long stepAttacks(int square, int[][] offsets) {
+        long attacks = 0L;
+        for (int[] offset : offsets) {
+            int row = Bitboards.rowOf(square) + offset[0];
+            int column = Bitboards.columnOf(square) + offset[1];
+            if (isOnBoard(row, column)) {
+                attacks |= Bitboards.squareBit(Bitboards.squareIndex(row, column));
+            }
+        }
+        return attacks;
+    }
+
+    // Walks each ray one square at a time until it leaves the board or hits an occupied square
+    private static long rayAttacks(int square, long occupancy, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.rowOf(square) + direction[0];
+            int column = Bitboards.columnOf(square) + direction[1];
+            while (isOnBoard(row, column)) {
+                long squareBit = Bitboards.squareBit(Bitboards.squareIndex(row, column));
+                attacks |= squareBit;
+                if ((occupancy & squareBit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    // The squares whose occupancy can change a slider's attacks. The last square of each ray is left
+    // out because whether or not it is occupied, the ray reaches it and stops there.
+    private static long blockerMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.rowOf(square) + direction[0];
+            int column = Bitboards.columnOf(square) + direction[1];
+            while (isOnBoard(row + direction[0], column + direction[1])) {
+                mask |= Bitboards.squareBit(Bitboards.squareIndex(row, column));
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static boolean isOnBoard(int row, int column) {
+        return !(row < 1 || row > 8 || column < 1 || column > 8);
+    }
+
+    /**
+     * The magic bitboard lookup for one kind of sliding piece. Every square's attack sets are stored
+     * back to back in one flat array, starting at that square's offset.
+     */
+    private static final class SliderTable {
+
+        private final long[] masks = new long[64];
+        private final long[] magics = new long[64];
+        private final int[] shifts = new int[64];
+        private final int[] offsets = new int[64];
+        private final long[] attackTable;
+
+        private long randomState;
+
+        private SliderTable(int[][] directions) {
+            int tableSize = 0;
+            for (int square = 0; square < 64; square++) {
+                masks[square] = blockerMask(square, directions);
+                shifts[square] = 64 - Bitboards.countSquares(masks[square]);
+                offsets[square] = tableSize;
+                tableSize += 1 << Bitboards.countSquares(masks[square]);
+            }
+            attackTable = new long[tableSize];
+            for (int square = 0; square < 64; square++) {
+                findMagic(square, directions);
+            }
+        }
+
+        private long attacks(int square, long occupancy) {
+            long blockers = occupancy & masks[square];
+            return attackTable[offsets[square] + (int) ((blockers * magics[square]) >>> shifts[square])];
+        }
+
+        /**
+         * Tries random candidate multipliers until one maps every possible arrangement of blockers
+         * onto a table slot without two arrangements with different attacks sharing a slot.
+         */
+        private void findMagic(int square, int[][] directions) {
+            long mask = masks[square];
+            int subsetCount = 1 << Bitboards.countSquares(mask);
+            long[] blockerSubsets = new long[subsetCount];
+            long[] subsetAttacks = new long[subsetCount];
+            // Enumerate every subset of the mask using the carry-rippler trick
+            long subset = 0L;
+            for (int i = 0; i < subsetCount; i++) {
+                blockerSubsets[i] = subset;
+                subsetAttacks[i] = rayAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            }
+
+            randomState = MAGIC_SEEDS[Bitboards.rowOf(square) - 1];
+            long[] candidateSlots = new long[subsetCount];
+            int[] slotEpoch = new int[subsetCount];
+            for (int epoch = 1; ; epoch++) {
+                long candidate = nextSparseRandom();
+                // Multipliers that spread too few mask bits into the index bits rarely work, so skip them early
+                if (Bitboards.countSquares((mask * candidate) & 0xFF00000000000000L) < 6) {
+                    continue;
+                }
+                boolean collided = false;
+                for (int i = 0; i < subsetCount && !collided; i++) {
+                    int slot = (int) ((blockerSubsets[i] * candidate) >>> shifts[square]);
+                    if (slotEpoch[slot] != epoch) {
+                        slotEpoch[slot] = epoch;
+                        candidateSlots[slot] = subsetAttacks[i];
+                    } else if (candidateSlots[slot] != subsetAttacks[i]) {
+                        collided = true;
+                    }
+                }
+                if (!collided) {
+                    magics[square] = candidate;
+                    System.arraycopy(candidateSlots, 0, attackTable, offsets[square], subsetCount);
+                    return;
+                }
+            }
+        }
+
+        // Magic numbers with few set bits are found much faster, so three random values are ANDed together
+        private long nextSparseRandom() {
+            return nextRandom() & nextRandom() & nextRandom();
+        }
+
+        // xorshift64* generator, used instead of java.util.Random so the sequence is fixed by the seed alone
+        private long nextRandom() {
+            randomState ^= randomState >>> 12;
+            randomState ^= randomState << 25;
+            randomState ^= randomState >>> 27;
+            return randomState * 0x2545F4914F6CDD1DL;
+        }
+    }
+}
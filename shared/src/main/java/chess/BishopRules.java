@@ -1,20 +1,15 @@
 package chess;
 
-import java.util.HashSet;
-
 public class BishopRules extends MoveRules {
 
-    public BishopRules(ChessGame.TeamColor pieceColor) {
-        // Tells the parent abstract class whether the piece can move infinitely (recursively) after it starts moving
-        super(true, pieceColor);
+    // The row and column directions a bishop slides in
+    static final int[][] DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    BishopRules() {
     }
 
-    protected HashSet<int[]> potentialMovements(ChessBoard board, ChessPosition myPosition) {
-        HashSet<int[]> bishopMoves = new HashSet<>(8);
-        bishopMoves.add(new int[]{-1, -1});
-        bishopMoves.add(new int[]{-1, 1});
-        bishopMoves.add(new int[]{1, -1});
-        bishopMoves.add(new int[]{1, 1});
-        return bishopMoves;
+    // The bishop slides until it leaves the board or reaches the first piece in its path, which it may capture
+    protected long reachableSquares(ChessBoard board, int fromSquare, ChessGame.TeamColor pieceColor) {
+        return AttackTables.bishopAttacks(fromSquare, board.getOccupancy());
     }
 }
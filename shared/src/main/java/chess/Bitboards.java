@@ -0,0 +1,127 @@
+package chess;
+
+/**
+ * Static helpers for working with bitboards, where a single 64-bit long encodes a set of squares.
+ * <p>
+ * Squares are indexed from 0 to 63 starting at the bottom left corner of the board (row 1, column 1)
+ * and moving left to right, then bottom to top, so that square = (row - 1) * 8 + (column - 1).
+ * Bit n of a bitboard is set when square n is a member of the set.
+ */
+public final class Bitboards {
+
+    public static final long ROW_3 = 0x0000000000FF0000L;
+    public static final long ROW_6 = 0x0000FF0000000000L;
+    // The light squares, starting with b1 and a2; a1 is a dark square
+    public static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    // Cached copies of the enum values() arrays, which would otherwise be cloned on every call
+    private static final ChessGame.TeamColor[] TEAM_COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Bitboards() {
+    }
+
+    /**
+     * @return the 0-63 square index of a 1-indexed row and column
+     */
+    public static int squareIndex(int row, int column) {
+        return ((row - 1) << 3) | (column - 1);
+    }
+
+    /**
+     * @return the 0-63 square index of a position on the board
+     */
+    public static int squareIndex(ChessPosition position) {
+        return squareIndex(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 1-indexed row of a 0-63 square index
+     */
+    public static int rowOf(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-indexed column of a 0-63 square index
+     */
+    public static int columnOf(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @return a ChessPosition for the given 0-63 square index
+     */
+    public static ChessPosition positionOf(int square) {
+        return ChessPosition.ofSquare(square);
+    }
+
+    /**
+     * @return a bitboard with only the given square set
+     */
+    public static long squareBit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Identifies which of the twelve (color, type) piece bitboards a piece belongs to.
+     * White pieces occupy indices 0-5 and black pieces 6-11, each ordered by PieceType ordinal.
+     *
+     * @return the index of the piece bitboard for this color and type
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the team color of the pieces in the given piece bitboard index
+     */
+    public static ChessGame.TeamColor pieceColor(int pieceIndex) {
+        return TEAM_COLORS[pieceIndex / 6];
+    }
+
+    /**
+     * @return the piece type of the pieces in the given piece bitboard index
+     */
+    public static ChessPiece.PieceType pieceType(int pieceIndex) {
+        return PIECE_TYPES[pieceIndex % 6];
+    }
+
+    /**
+     * @return the square index of the lowest set bit of a non-empty bitboard
+     */
+    public static int lowestSquare(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * @return the bitboard with its lowest set bit cleared, used to iterate over the squares of a bitboard
+     */
+    public static long withoutLowestSquare(long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    /**
+     * @return how many squares are set in the bitboard
+     */
+    public static int countSquares(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+
+    /**
+     * Renders a bitboard in the same top-down layout as ChessBoard.visualizeBoard(), useful when debugging.
+     *
+     * @return a string with an 'X' on every set square and a '-' on every empty square
+     */
+    public static String visualize(long bitboard) {
+        StringBuilder boardString = new StringBuilder(72);
+        for (int rowPos = 8; rowPos >= 1; rowPos--) {
+            for (int colPos = 1; colPos <= 8; colPos++) {
+                boolean isSet = (bitboard & squareBit(squareIndex(rowPos, colPos))) != 0;
+                boardString.append(isSet ? 'X' : '-');
+            }
+            boardString.append('\n');
+        }
+        return boardString.toString();
+    }
+}
@@ -1,9 +1,8 @@
 package chess;
 
-import org.junit.jupiter.api.extension.ParameterResolutionException;
-
-import java.awt.*;
-import java.util.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -13,7 +12,21 @@ import java.util.*;
  */
 public class ChessBoard {
 
-    ChessPiece[][] boardSquares = new ChessPiece[8][8];
+    // One bitboard for each (color, type) pair of pieces, indexed by Bitboards.pieceIndex
+    long[] pieceBitboards = new long[12];
+    // The union of all piece bitboards belonging to each team, indexed by TeamColor ordinal
+    long[] teamOccupancy = new long[2];
+    // Zobrist hash of the piece placement, kept up to date as pieces are placed and removed
+    long zobristKey = 0L;
+    // Sums of the PieceSquareTables scores and phase weights of every piece, kept up to date the same way
+    int middlegameScore = 0;
+    int endgameScore = 0;
+    int gamePhase = 0;
+
+    // Undo records of the moves made with makeMove(), most recent last. They are bookkeeping rather than
+    // part of the position, so they are left out of serialization, copies, equality and hashing.
+    private transient int[] undoStack = new int[16];
+    private transient int undoCount = 0;
 
     public ChessBoard() {
     }
@@ -23,7 +36,7 @@ public class ChessBoard {
         ChessBoard stringBoard = new ChessBoard();
         for (int rowPos = 8; rowPos >= 1; rowPos--, stringPos++) {
             for (int colPos = 1; colPos <= 8; colPos++, stringPos++) {
-                ChessPosition boardPos = new ChessPosition(rowPos, colPos);
+                ChessPosition boardPos = ChessPosition.of(rowPos, colPos);
                 ChessPiece pieceFromChar = ChessPiece.fromLetter(inputBoardString.charAt(stringPos));
                 if (pieceFromChar != null) {
                     stringBoard.addPiece(boardPos, pieceFromChar);
@@ -40,7 +53,62 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        boardSquares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = Bitboards.squareIndex(position);
+        int oldPieceIndex = pieceIndexAt(square);
+        if (oldPieceIndex >= 0) {
+            removePiece(square, oldPieceIndex);
+        }
+        if (piece != null) {
+            putPiece(square, Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
+    }
+
+    /**
+     * Finds which piece bitboard, if any, holds the given square
+     *
+     * @param square the 0-63 square index to check
+     * @return the Bitboards.pieceIndex of the piece on the square, or -1 if the square is empty
+     */
+    public int pieceIndexAt(int square) {
+        long squareBit = Bitboards.squareBit(square);
+        int firstIndex;
+        if ((teamOccupancy[0] & squareBit) != 0) {
+            firstIndex = 0;
+        } else if ((teamOccupancy[1] & squareBit) != 0) {
+            firstIndex = 6;
+        } else {
+            return -1;
+        }
+        // The team's occupancy says the square is taken, so exactly one of its six piece bitboards holds it
+        for (int pieceIndex = firstIndex; pieceIndex < firstIndex + 5; pieceIndex++) {
+            if ((pieceBitboards[pieceIndex] & squareBit) != 0) {
+                return pieceIndex;
+            }
+        }
+        return firstIndex + 5;
+    }
+
+    // Removes a piece known to be on the square from its piece bitboard, its team's occupancy, the hash
+    // and the piece-square scores
+    private void removePiece(int square, int pieceIndex) {
+        long squareBit = Bitboards.squareBit(square);
+        pieceBitboards[pieceIndex] &= ~squareBit;
+        teamOccupancy[pieceIndex / 6] &= ~squareBit;
+        zobristKey ^= Zobrist.pieceSquareKey(pieceIndex, square);
+        middlegameScore -= PieceSquareTables.middlegameScore(pieceIndex, square);
+        endgameScore -= PieceSquareTables.endgameScore(pieceIndex, square);
+        gamePhase -= PieceSquareTables.phaseWeight(pieceIndex);
+    }
+
+    // Places a piece on a square known to be empty
+    void putPiece(int square, int pieceIndex) {
+        long squareBit = Bitboards.squareBit(square);
+        pieceBitboards[pieceIndex] |= squareBit;
+        teamOccupancy[pieceIndex / 6] |= squareBit;
+        zobristKey ^= Zobrist.pieceSquareKey(pieceIndex, square);
+        middlegameScore += PieceSquareTables.middlegameScore(pieceIndex, square);
+        endgameScore += PieceSquareTables.endgameScore(pieceIndex, square);
+        gamePhase += PieceSquareTables.phaseWeight(pieceIndex);
     }
 
     /**
@@ -51,47 +119,220 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return boardSquares[position.getRow() - 1][position.getColumn() - 1];
+        int pieceIndex = pieceIndexAt(Bitboards.squareIndex(position));
+        if (pieceIndex < 0) {
+            return null;
+        }
+        return ChessPiece.ofPieceIndex(pieceIndex);
+    }
+
+    /**
+     * Moves a piece on the board, capturing whatever stands on the end position and promoting the piece
+     * if the move calls for it. The move is recorded so that unmakeMove() can restore the board exactly.
+     * No check is made that the move is legal, so that hypothetical moves can be tried and taken back.
+     *
+     * @param move the move to make, whose start position must hold a piece
+     */
+    public void makeMove(ChessMove move) {
+        makeMove(PackedMove.fromChessMove(move));
+    }
+
+    /**
+     * Moves a piece on the board as makeMove(ChessMove) does, taking the move in its packed form
+     *
+     * @param packedMove the move to make, as created by PackedMove, whose start square must hold a piece
+     */
+    public void makeMove(int packedMove) {
+        int fromSquare = PackedMove.fromSquare(packedMove);
+        int toSquare = PackedMove.toSquare(packedMove);
+        int movedPieceIndex = pieceIndexAt(fromSquare);
+        if (movedPieceIndex < 0) {
+            throw new IllegalArgumentException("There is no piece at the start square of the move " + PackedMove.toString(packedMove));
+        }
+        int capturedPieceIndex = pieceIndexAt(toSquare);
+        int placedPieceIndex = movedPieceIndex;
+        if (PackedMove.isPromotion(packedMove)) {
+            placedPieceIndex = Bitboards.pieceIndex(Bitboards.pieceColor(movedPieceIndex), PackedMove.promotionType(packedMove));
+        }
+
+        removePiece(fromSquare, movedPieceIndex);
+        if (capturedPieceIndex >= 0) {
+            removePiece(toSquare, capturedPieceIndex);
+        }
+        putPiece(toSquare, placedPieceIndex);
+
+        // Everything needed to undo the move fits in one int: which squares were involved, which piece
+        // moved, and which piece (offset by one so that 0 means none) was captured
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+        }
+        undoStack[undoCount++] = fromSquare | (toSquare << 6) | (movedPieceIndex << 12) | ((capturedPieceIndex + 1) << 16);
+    }
+
+    /**
+     * Takes back the most recent move made with makeMove(), restoring any captured piece and undoing
+     * any promotion.
+     *
+     * @throws IllegalStateException if there are no moves left to take back
+     */
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("There are no moves made on this board to unmake.");
+        }
+        int undoRecord = undoStack[--undoCount];
+        int fromSquare = undoRecord & 0x3F;
+        int toSquare = (undoRecord >>> 6) & 0x3F;
+        int movedPieceIndex = (undoRecord >>> 12) & 0xF;
+        int capturedPieceIndex = ((undoRecord >>> 16) & 0xF) - 1;
+
+        removePiece(toSquare, pieceIndexAt(toSquare));
+        if (capturedPieceIndex >= 0) {
+            putPiece(toSquare, capturedPieceIndex);
+        }
+        putPiece(fromSquare, movedPieceIndex);
     }
 
     public Collection<ChessPosition> findPiece(ChessPiece pieceOfInterest) {
-        HashSet<ChessPosition> piecesOfInterest = new HashSet<>(10);
-        // Represent the board as a string
-        String boardString = this.visualizeBoard();
-        char pieceChar = pieceOfInterest.toChar();
-        // lastFoundPos keeps track of the position in the original boardString for the sake of solving for row and column positions
-        int lastFoundPos = 0;
-        // locatedCharPos finds the index of the first character occurance
-        int locatedCharPos = boardString.indexOf(pieceChar);
-        // If the character representing the piece of interest can still be found on the board, add it and keep looking
-        while (locatedCharPos >= 0) {
-            lastFoundPos = lastFoundPos + locatedCharPos;
-            int rowPos = 8 - lastFoundPos / 9;
-            int colPos = lastFoundPos % 9 + 1;
-            piecesOfInterest.add(new ChessPosition(rowPos, colPos));
-            lastFoundPos += 1;
-            boardString = boardString.substring(locatedCharPos + 1);
-            locatedCharPos = boardString.indexOf(pieceChar);
-        }
-        // If the corresponding piece could not be found, -1 is returned
+        long pieceBitboard = getPieceBitboard(pieceOfInterest.getTeamColor(), pieceOfInterest.getPieceType());
+        HashSet<ChessPosition> piecesOfInterest = new HashSet<>(Bitboards.countSquares(pieceBitboard) * 2);
+        // Peel off the lowest set square of the bitboard until every matching piece has been located
+        while (pieceBitboard != 0) {
+            piecesOfInterest.add(Bitboards.positionOf(Bitboards.lowestSquare(pieceBitboard)));
+            pieceBitboard = Bitboards.withoutLowestSquare(pieceBitboard);
+        }
         return piecesOfInterest;
     }
 
+    /**
+     * @return a bitboard of every square holding a piece of the given color and type
+     */
+    public long getPieceBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * Finds a team's King without searching the board. The King bitboard always holds its square, so
+     * this is a single bit scan.
+     *
+     * @param color the team whose King to find
+     * @return the 0-63 square index of the team's King, or -1 if the team has no King on the board
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        long kingBitboard = pieceBitboards[Bitboards.pieceIndex(color, ChessPiece.PieceType.KING)];
+        return (kingBitboard == 0) ? -1 : Bitboards.lowestSquare(kingBitboard);
+    }
+
+    /**
+     * The team occupancy doubles as the team's piece list: it is updated whenever a piece is placed,
+     * moved or captured, and its squares can be walked with Bitboards.lowestSquare() and
+     * Bitboards.withoutLowestSquare() to visit every piece of that team and no others.
+     *
+     * @return a bitboard of every square holding a piece belonging to the given team
+     */
+    public long getTeamOccupancy(ChessGame.TeamColor color) {
+        return teamOccupancy[color.ordinal()];
+    }
+
+    /**
+     * @return a bitboard of every square holding a piece of either team
+     */
+    public long getOccupancy() {
+        return teamOccupancy[0] | teamOccupancy[1];
+    }
+
+    /**
+     * Determines whether neither team has enough material left to ever checkmate the other, whatever
+     * moves are made. That is the case when the only pieces besides the Kings are a single Knight or
+     * Bishop, or any number of Bishops that all stand on squares of the same color. It is read straight
+     * from the piece bitboards, so it takes the same time however many pieces are on the board.
+     *
+     * @return whether the position is a draw by insufficient material
+     */
+    public boolean hasInsufficientMaterial() {
+        long majorPiecesAndPawns = 0L;
+        long knights = 0L;
+        long bishops = 0L;
+        for (int firstIndex = 0; firstIndex < 12; firstIndex += 6) {
+            majorPiecesAndPawns |= pieceBitboards[firstIndex + ChessPiece.PieceType.QUEEN.ordinal()]
+                                   | pieceBitboards[firstIndex + ChessPiece.PieceType.ROOK.ordinal()]
+                                   | pieceBitboards[firstIndex + ChessPiece.PieceType.PAWN.ordinal()];
+            knights |= pieceBitboards[firstIndex + ChessPiece.PieceType.KNIGHT.ordinal()];
+            bishops |= pieceBitboards[firstIndex + ChessPiece.PieceType.BISHOP.ordinal()];
+        }
+        if (majorPiecesAndPawns != 0) {
+            return false;
+        }
+        if (Bitboards.countSquares(knights | bishops) <= 1) {
+            return true;
+        }
+        // Bishops confined to one color of square can never attack a King on the other color
+        return knights == 0 && ((bishops & Bitboards.LIGHT_SQUARES) == 0 || (bishops & ~Bitboards.LIGHT_SQUARES) == 0);
+    }
+
+    /**
+     * Gets the Zobrist hash of the pieces on this board. It does not include which team is to move,
+     * which is tracked by ChessGame.
+     *
+     * @return a 64-bit hash that is equal for any two boards with the same pieces on the same squares
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return the sum of the PieceSquareTables middlegame scores of every piece, from White's point of view
+     */
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    /**
+     * @return the sum of the PieceSquareTables endgame scores of every piece, from White's point of view
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return the game phase, from PieceSquareTables.MAX_PHASE with every starting piece on the board
+     * down to 0 with only Kings and pawns
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    /**
+     * Scores the position by material and piece placement, blending the middlegame and endgame scores
+     * by the game phase. The sums behind it are kept up to date as pieces are placed, moved and captured,
+     * so this takes the same time however many pieces are on the board.
+     *
+     * @return the score in centipawns from White's point of view, positive when White is ahead
+     */
+    public int getTaperedScore() {
+        return PieceSquareTables.taper(middlegameScore, endgameScore, gamePhase);
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        String defaultBoard = "rnbqkbnr\n" + "pppppppp\n" + "--------\n" + "--------\n" + "--------\n" + "--------\n" + "PPPPPPPP\n" + "RNBQKBNR";
-        int stringPos = 0;
-        for (int rowPos = 8; rowPos >= 1; rowPos--, stringPos++) {
-            for (int colPos = 1; colPos <= 8; colPos++, stringPos++) {
-                boardSquares[rowPos - 1][colPos - 1] = null;
-                ChessPiece pieceFromChar = ChessPiece.fromLetter(defaultBoard.charAt(stringPos));
-                if (pieceFromChar != null) {
-                    addPiece(new ChessPosition(rowPos, colPos), pieceFromChar);
-                }
-            }
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(teamOccupancy, 0L);
+        zobristKey = 0L;
+        middlegameScore = 0;
+        endgameScore = 0;
+        gamePhase = 0;
+        ChessPiece.PieceType[] backRow = {ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT,
+                                          ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.QUEEN,
+                                          ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                                          ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
+        undoCount = 0;
+        for (int colPos = 1; colPos <= 8; colPos++) {
+            putPiece(Bitboards.squareIndex(1, colPos), Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, backRow[colPos - 1]));
+            putPiece(Bitboards.squareIndex(2, colPos), Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            putPiece(Bitboards.squareIndex(7, colPos), Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            putPiece(Bitboards.squareIndex(8, colPos), Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, backRow[colPos - 1]));
         }
     }
 
@@ -99,7 +340,7 @@ public class ChessBoard {
         StringBuilder boardString = new StringBuilder(72);
         for (int rowPos = 8; rowPos >= 1; rowPos--) {
             for (int colPos = 1; colPos <= 8; colPos++) {
-                ChessPiece somePiece = this.getPiece(new ChessPosition(rowPos, colPos));
+                ChessPiece somePiece = this.getPiece(ChessPosition.of(rowPos, colPos));
                 if (somePiece == null) {
                     boardString.append('-');
                 } else {
@@ -112,8 +353,14 @@ public class ChessBoard {
     }
 
     public ChessBoard deepCopy() {
-        String stringVisualization = visualizeBoard();
-        return ChessBoard.fromString(stringVisualization);
+        ChessBoard boardCopy = new ChessBoard();
+        System.arraycopy(pieceBitboards, 0, boardCopy.pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(teamOccupancy, 0, boardCopy.teamOccupancy, 0, teamOccupancy.length);
+        boardCopy.zobristKey = zobristKey;
+        boardCopy.middlegameScore = middlegameScore;
+        boardCopy.endgameScore = endgameScore;
+        boardCopy.gamePhase = gamePhase;
+        return boardCopy;
     }
 
     @Override
@@ -127,11 +374,12 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(boardSquares, that.boardSquares);
+        // Team occupancy is derived from the piece bitboards, so comparing those alone is sufficient
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(boardSquares);
+        return Long.hashCode(zobristKey);
     }
 }
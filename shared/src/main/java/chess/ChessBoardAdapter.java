@@ -0,0 +1,92 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a ChessBoard as the piece placement field of a FEN string, such as
+ * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR".
+ * <p>
+ * Boards stored by earlier versions can be read too. Those were written by reflection, either as a
+ * {"boardSquares": [[...], ...]} grid of pieces indexed by row and then column, or as the
+ * {"pieceBitboards": [...], "teamOccupancy": [...], "zobristKey": ...} fields of the bitboard board. In
+ * the second form only the piece bitboards are read, and the rest is rebuilt from them.
+ */
+final class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+
+    private final ChessPieceAdapter pieceAdapter;
+
+    ChessBoardAdapter(ChessPieceAdapter pieceAdapter) {
+        this.pieceAdapter = pieceAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        StringBuilder placement = new StringBuilder(72);
+        Fen.appendPlacement(placement, board);
+        out.value(placement.toString());
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            try {
+                return Fen.boardFromPlacement(in.nextString());
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+
+        ChessBoard board = new ChessBoard();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "boardSquares" -> readBoardSquares(in, board);
+                case "pieceBitboards" -> readPieceBitboards(in, board);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return board;
+    }
+
+    // The grid is 8 rows of 8 squares, each row starting from column 1 and the first row being row 1
+    private void readBoardSquares(JsonReader in, ChessBoard board) throws IOException {
+        in.beginArray();
+        for (int rowPos = 1; in.hasNext(); rowPos++) {
+            in.beginArray();
+            for (int colPos = 1; in.hasNext(); colPos++) {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                ChessPiece piece = pieceAdapter.read(in);
+                if (rowPos > 8 || colPos > 8) {
+                    throw new JsonParseException("Chess board grid is larger than 8 rows of 8 squares.");
+                }
+                board.addPiece(ChessPosition.of(rowPos, colPos), piece);
+            }
+            in.endArray();
+        }
+        in.endArray();
+    }
+
+    private void readPieceBitboards(JsonReader in, ChessBoard board) throws IOException {
+        in.beginArray();
+        for (int pieceIndex = 0; in.hasNext(); pieceIndex++) {
+            long pieceBitboard = in.nextLong();
+            if (pieceIndex >= 12 || (pieceBitboard & board.getOccupancy()) != 0) {
+                throw new JsonParseException("Chess board bitboards do not describe one piece per square.");
+            }
+            for (long remaining = pieceBitboard; remaining != 0; remaining = Bitboards.withoutLowestSquare(remaining)) {
+                board.putPiece(Bitboards.lowestSquare(remaining), pieceIndex);
+            }
+        }
+        in.endArray();
+    }
+}
@@ -1,8 +1,10 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -17,6 +19,16 @@ public class ChessGame {
     private ChessBoard activeBoard;
     private TeamColor activeTeam;
     private ArrayList<ChessMove> moveHistory;
+    // Moves since the last capture or pawn move, and the number of the current full move, as kept by FEN
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    // Zobrist keys of the positions since the last capture or pawn move, oldest first and ending with the
+    // current position, and how many times the current position has occurred among them. No earlier
+    // position can ever recur, so only these are needed to detect repetition. They are derived from the
+    // board and move history, so they are left out of serialization and rebuilt when first needed.
+    private transient long[] positionKeys;
+    private transient int positionKeyCount;
+    private transient int repetitionCount;
 
     // Instantiation of a ChessGame object will create and reset a ChessBoard object
     public ChessGame() {
@@ -24,6 +36,35 @@ public class ChessGame {
         activeBoard.resetBoard();
         activeTeam = TeamColor.WHITE;
         moveHistory = new ArrayList<>();
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+    }
+
+    // Sets up a game in a position read from elsewhere, such as a FEN string or an encoded game
+    ChessGame(ChessBoard board, TeamColor activeTeam, ArrayList<ChessMove> moveHistory, int halfmoveClock, int fullmoveNumber) {
+        this.activeBoard = board;
+        this.activeTeam = activeTeam;
+        this.moveHistory = moveHistory;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Sets up a game from a position in Forsyth-Edwards Notation
+     *
+     * @param fen the position, as parsed by Fen.parse()
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the text is not a valid FEN string
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation, as written by Fen.format()
+     */
+    public String toFen() {
+        return Fen.format(this);
     }
 
     /**
@@ -42,6 +83,20 @@ public class ChessGame {
         activeTeam = team;
     }
 
+    /**
+     * @return the number of moves made since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current full move, which starts at 1 and goes up after each Black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -49,6 +104,33 @@ public class ChessGame {
         WHITE, BLACK
     }
 
+    /**
+     * Enum identifying the condition a team is in when it is that team's turn to move
+     */
+    public enum GameStatus {
+        NORMAL, CHECK, CHECKMATE, STALEMATE,
+        // The same position, with the same team to move, has occurred three times
+        DRAW_BY_REPETITION,
+        // Fifty moves by each team have passed without a capture or a pawn move
+        DRAW_BY_FIFTY_MOVES,
+        // Neither team has the pieces left to checkmate the other
+        DRAW_BY_INSUFFICIENT_MATERIAL;
+
+        /**
+         * @return whether the game cannot continue once a team is in this condition
+         */
+        public boolean isGameOver() {
+            return this != NORMAL && this != CHECK;
+        }
+
+        /**
+         * @return whether the game ends in a draw once a team is in this condition
+         */
+        public boolean isDraw() {
+            return isGameOver() && this != CHECKMATE;
+        }
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -60,17 +142,14 @@ public class ChessGame {
         if (startPosition.isOnBoard()) {
             ChessPiece movePiece = activeBoard.getPiece(startPosition);
             if (movePiece != null) {
-                Collection<ChessMove> legalValidMoves = new HashSet<>();
-                for (ChessMove movementValidMove : movePiece.pieceMoves(activeBoard, startPosition)) {
-                    // Confirm that the desired move does not end with the King in check
-                    ChessBoard hypotheticalBoard = activeBoard.deepCopy();
-                    applyMove(hypotheticalBoard, movementValidMove);
-                    ChessPiece kingPiece = new ChessPiece(movePiece.getTeamColor(), ChessPiece.PieceType.KING);
-                    ChessPosition kingPosition = hypotheticalBoard.findPiece(kingPiece).iterator().next();
-                    // If this move results in a hypotheticalBoard where there are no ways that
-                    // the moving team's King is in check, add it to the legalValidMove set.
-                    if (reverseSearchCheckAll(hypotheticalBoard, kingPosition, movePiece.getTeamColor()).isEmpty()) {
-                        legalValidMoves.add(movementValidMove);
+                // Every legal move of the piece's team is found (or recalled from the cache) at once,
+                // then narrowed down to the moves starting from this piece's square
+                int[] teamLegalMoves = LegalMoveCache.shared().legalMoves(activeBoard, movePiece.getTeamColor());
+                int startSquare = Bitboards.squareIndex(startPosition);
+                HashSet<ChessMove> legalValidMoves = new HashSet<>();
+                for (int packedMove : teamLegalMoves) {
+                    if (PackedMove.fromSquare(packedMove) == startSquare) {
+                        legalValidMoves.add(PackedMove.toChessMove(packedMove));
                     }
                 }
                 return legalValidMoves;
@@ -79,6 +158,35 @@ public class ChessGame {
         return null;
     }
 
+    /**
+     * Finds every legal move of one team in a single pass over its pieces. The threats to the team's
+     * King are found once and shared by every piece, rather than once per piece as with validMoves().
+     *
+     * @param teamColor which team to find moves for
+     * @param moves     a list to fill with the moves in packed form (see PackedMove). It is cleared
+     *                  first, so the same list can be reused from one position to the next.
+     * @return the number of legal moves found
+     */
+    public int allLegalMoves(TeamColor teamColor, MoveList moves) {
+        moves.clear();
+        new LegalMoveGenerator(activeBoard, teamColor).addAllLegalMoves(moves);
+        return moves.size();
+    }
+
+    /**
+     * Finds every legal move of one team, as allLegalMoves(TeamColor, MoveList) does
+     *
+     * @param teamColor which team to find moves for
+     * @return a set of every legal move the team can make
+     */
+    public Collection<ChessMove> allLegalMoves(TeamColor teamColor) {
+        MoveList moves = new MoveList();
+        allLegalMoves(teamColor, moves);
+        HashSet<ChessMove> legalMoves = new HashSet<>();
+        moves.addChessMovesTo(legalMoves);
+        return legalMoves;
+    }
+
     /**
      * Makes a move in a chess game
      *
@@ -93,46 +201,181 @@ public class ChessGame {
             throw new InvalidMoveException("Provided ChessMove object has a starting position that is off the board.");
         }
 
-        Collection<ChessMove> hypotheticalMoves = validMoves(startPosition);
-        // hypotheticalMoves will only be null if the starting position was empty
-        if (hypotheticalMoves == null) {
+        ChessPiece movingPiece = activeBoard.getPiece(startPosition);
+        if (movingPiece == null) {
             throw new InvalidMoveException("Provided ChessMove object has a starting position where there is no piece.");
         }
 
         // Check if the desired move would move a piece from the team that is not active (out of turn move)
-        if (activeTeam != activeBoard.getPiece(startPosition).getTeamColor()) {
+        if (activeTeam != movingPiece.getTeamColor()) {
             throw new InvalidMoveException("Provided ChessMove object would move a piece out of turn.");
         }
 
-        // Verify that the desired move is among the hypothetically possible moves
-        if (!hypotheticalMoves.contains(move)) {
+        // Verify that this one move is possible for the piece and leaves its King safe, without generating
+        // the piece's other moves
+        if (!move.getEndPosition().isOnBoard() || !LegalMoveGenerator.isLegalMove(activeBoard, PackedMove.fromChessMove(move))) {
             throw new InvalidMoveException("Provided ChessMove object does not represent a valid move for this piece in this board-state.");
         }
 
+        // The position before the move must be known before it can be added to
+        ensurePositionKeys();
+
+        // A capture or pawn move restarts the halfmove clock, so it is checked before the board changes
+        boolean isCapture = (activeBoard.getOccupancy() & Bitboards.squareBit(Bitboards.squareIndex(move.getEndPosition()))) != 0;
+        if (isCapture || movingPiece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+
         // Logic for moving a chess piece on the board when it is known that the move is valid
-        applyMove(activeBoard, move);
+        activeBoard.makeMove(move);
         moveHistory.add(move);
         if (activeTeam == TeamColor.WHITE) {
             activeTeam = TeamColor.BLACK;
         } else {
             activeTeam = TeamColor.WHITE;
+            fullmoveNumber++;
         }
+        recordPosition();
     }
 
-    private void applyMove(ChessBoard someBoard, ChessMove someMove) {
-        ChessPosition startPosition = someMove.getStartPosition();
-        ChessPosition endPosition = someMove.getEndPosition();
-        ChessPiece.PieceType promotionType = someMove.getPromotionPiece();
-        ChessPiece movingPiece = someBoard.getPiece(startPosition);
-        if (promotionType == null) {
-            movingPiece = new ChessPiece(movingPiece.getTeamColor(), movingPiece.getPieceType());
-        } else {
-            movingPiece = new ChessPiece(movingPiece.getTeamColor(), promotionType);
+    /**
+     * Determines whether the given team is in check, checkmate or stalemate, or whether the game has
+     * been drawn, in a single look at the board. When the team's legal moves are already cached, their
+     * count is used. Otherwise the threats to the King are found once and the search for a legal move
+     * stops at the first piece that has one, so this is cheaper than calling isInCheck(),
+     * isInCheckmate() and isInStalemate() in turn.
+     * <p>
+     * Checkmate and stalemate take precedence over the draws, which are then checked in constant time:
+     * insufficient material from the piece bitboards, repetition from a count kept as moves are made,
+     * and the fifty-move rule from the halfmove clock. The draws apply to the game as a whole, whichever
+     * team is asked about. They end the game as soon as they arise rather than waiting to be claimed.
+     *
+     * @param teamColor which team to evaluate
+     * @return the condition the team is in
+     */
+    public GameStatus evaluateStatus(TeamColor teamColor) {
+        int[] cachedMoves = LegalMoveCache.shared().cachedLegalMoves(activeBoard, teamColor);
+        if (cachedMoves != null) {
+            return evaluateStatus(cachedMoves.length, LegalMoveGenerator.isInCheck(activeBoard, teamColor));
+        }
+        // Nothing is added to the cache here, since finding one legal move is far cheaper than finding them all
+        LegalMoveGenerator moveGenerator = new LegalMoveGenerator(activeBoard, teamColor);
+        return evaluateStatus(moveGenerator.hasLegalMove() ? 1 : 0, moveGenerator.isInCheck());
+    }
+
+    /**
+     * Determines the status of a team, as evaluateStatus(TeamColor) does, for callers that have
+     * already generated the team's moves and found whether it is in check
+     *
+     * @param legalMoveCount how many legal moves the team has, or any positive number if it has some
+     * @param inCheck        whether the team's King is attacked
+     * @return the condition the team is in
+     */
+    GameStatus evaluateStatus(int legalMoveCount, boolean inCheck) {
+        if (legalMoveCount == 0) {
+            return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        if (activeBoard.hasInsufficientMaterial()) {
+            return GameStatus.DRAW_BY_INSUFFICIENT_MATERIAL;
+        }
+        ensurePositionKeys();
+        if (repetitionCount >= 3) {
+            return GameStatus.DRAW_BY_REPETITION;
         }
-        someBoard.addPiece(startPosition, null);
-        // Since this logic is only reached if the move is among the hypotheticalMoves
-        // (which must be valid), we don't need to check if the endPosition is valid.
-        someBoard.addPiece(endPosition, movingPiece);
+        if (halfmoveClock >= 100) {
+            return GameStatus.DRAW_BY_FIFTY_MOVES;
+        }
+        return inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+    }
+
+    /**
+     * @return how many times the current position, with the same team to move, has occurred in this game
+     */
+    public int getRepetitionCount() {
+        ensurePositionKeys();
+        return repetitionCount;
+    }
+
+    /**
+     * Gets the positions that could still be repeated, such as for a search that must see repetitions of
+     * positions reached before it started
+     *
+     * @return a copy of the Zobrist keys, as given by getZobristKey(), of the positions since the last
+     * capture or pawn move, oldest first and ending with the current position
+     */
+    public long[] getPositionKeyHistory() {
+        ensurePositionKeys();
+        return Arrays.copyOf(positionKeys, positionKeyCount);
+    }
+
+    // Adds the position just reached to the repetition history, starting the history over after a
+    // capture or pawn move. Only every other earlier position has the same team to move, and there are
+    // at most a hundred of them before the fifty-move rule ends the game, so the count stays cheap.
+    private void recordPosition() {
+        if (halfmoveClock == 0) {
+            positionKeyCount = 0;
+        }
+        if (positionKeyCount == positionKeys.length) {
+            positionKeys = Arrays.copyOf(positionKeys, positionKeyCount * 2);
+        }
+        positionKeys[positionKeyCount++] = getZobristKey();
+        countRepetitions();
+    }
+
+    private void countRepetitions() {
+        long currentKey = positionKeys[positionKeyCount - 1];
+        repetitionCount = 1;
+        for (int i = positionKeyCount - 3; i >= 0; i -= 2) {
+            if (positionKeys[i] == currentKey) {
+                repetitionCount++;
+            }
+        }
+    }
+
+    // Makes sure the repetition history ends with the current position
+    private void ensurePositionKeys() {
+        if (positionKeys == null) {
+            rebuildPositionKeys();
+        } else if (positionKeyCount == 0 || positionKeys[positionKeyCount - 1] != getZobristKey()) {
+            // The board or turn was replaced with setBoard() or setTeamTurn(), so no earlier position leads here
+            positionKeyCount = 0;
+            recordPosition();
+        }
+    }
+
+    // Rebuilds the repetition history after the game has been copied, deserialized or set up from FEN.
+    // None of the moves since the last capture or pawn move took anything or moved a pawn, so each can be
+    // taken back just by moving its piece from its end square to its start square again.
+    private void rebuildPositionKeys() {
+        int reversibleMoves = Math.min(halfmoveClock, moveHistory.size());
+        // Filled from the current position backwards, then reversed
+        long[] reversedKeys = new long[reversibleMoves + 1];
+        ChessBoard earlierBoard = activeBoard.deepCopy();
+        TeamColor earlierTeam = activeTeam;
+        reversedKeys[0] = getZobristKey();
+        int keyCount = 1;
+        for (int i = moveHistory.size() - 1; keyCount <= reversibleMoves; i--, keyCount++) {
+            int startSquare = Bitboards.squareIndex(moveHistory.get(i).getStartPosition());
+            int endSquare = Bitboards.squareIndex(moveHistory.get(i).getEndPosition());
+            int pieceIndex = earlierBoard.pieceIndexAt(endSquare);
+            // A history that does not match the board, such as after setBoard(), is followed no further
+            if (pieceIndex < 0 || Bitboards.pieceType(pieceIndex) == ChessPiece.PieceType.PAWN
+                    || earlierBoard.pieceIndexAt(startSquare) >= 0) {
+                break;
+            }
+            earlierBoard.makeMove(PackedMove.of(endSquare, startSquare, null, false));
+            earlierTeam = (earlierTeam == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+            reversedKeys[keyCount] = earlierBoard.getZobristKey() ^ Zobrist.sideToMoveKey(earlierTeam);
+        }
+
+        positionKeys = new long[Math.max(16, keyCount * 2)];
+        for (int i = 0; i < keyCount; i++) {
+            positionKeys[i] = reversedKeys[keyCount - 1 - i];
+        }
+        positionKeyCount = keyCount;
+        countRepetitions();
     }
 
     /**
@@ -142,53 +385,7 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPiece targetKing = new ChessPiece(teamColor, ChessPiece.PieceType.KING);
-        ChessPosition kingPosition = activeBoard.findPiece(targetKing).iterator().next();
-        // If the HashSet of moves causing check is not empty, then the piece is in check
-        return (!reverseSearchCheckAll(activeBoard, kingPosition, teamColor).isEmpty());
-    }
-
-    private HashSet<ChessMove> reverseSearchCheckAll(ChessBoard hypotheticalBoard, ChessPosition kingPosition, TeamColor teamColor) {
-        HashSet<ChessMove> movesCausingCheck = new HashSet<>(0);
-        movesCausingCheck.addAll(reverseSearchCheck(hypotheticalBoard.deepCopy(), kingPosition, teamColor, ChessPiece.PieceType.QUEEN, false));
-        movesCausingCheck.addAll(reverseSearchCheck(hypotheticalBoard.deepCopy(), kingPosition, teamColor, ChessPiece.PieceType.ROOK, false));
-        movesCausingCheck.addAll(reverseSearchCheck(hypotheticalBoard.deepCopy(), kingPosition, teamColor, ChessPiece.PieceType.BISHOP, false));
-        movesCausingCheck.addAll(reverseSearchCheck(hypotheticalBoard.deepCopy(), kingPosition, teamColor, ChessPiece.PieceType.KNIGHT, true));
-        movesCausingCheck.addAll(reverseSearchCheck(hypotheticalBoard.deepCopy(), kingPosition, teamColor, ChessPiece.PieceType.PAWN, false));
-        movesCausingCheck.addAll(reverseSearchCheck(hypotheticalBoard.deepCopy(), kingPosition, teamColor, ChessPiece.PieceType.KING, false));
-        return movesCausingCheck;
-    }
-
-    private HashSet<ChessMove> reverseSearchCheck(
-            ChessBoard hypotheticalBoard,
-            ChessPosition kingPosition,
-            TeamColor teamColor,
-            ChessPiece.PieceType checkPieceType,
-            boolean pieceCanJump) {
-        // For each piece type, see where a piece of that type could move from the kings position
-        HashSet<ChessMove> movesCausingCheck = new HashSet<>(0);
-        ChessPiece reverseCheckPiece = new ChessPiece(teamColor, checkPieceType);
-        hypotheticalBoard.addPiece(kingPosition, reverseCheckPiece);
-        Collection<ChessMove> reverseMoves = reverseCheckPiece.pieceMoves(hypotheticalBoard, kingPosition);
-        for (ChessMove reverseMove : reverseMoves) {
-            ChessPosition reverseMoveEndPos = reverseMove.getEndPosition();
-            ChessPiece reverseMoveEndPiece = hypotheticalBoard.getPiece(reverseMoveEndPos);
-            if (reverseMoveEndPiece == null) {
-                continue;
-            }
-            // Check if any of those positions contain enemy pieces of that type.
-            // If so, that piece could move into the king's space and is causing a check.
-            if (reverseMoveEndPiece.getTeamColor() != teamColor && reverseMoveEndPiece.getPieceType() == checkPieceType) {
-                // If pieceCanJump is false, it might be possible block the piece somewhere along
-                // its path, so all reverse moves end positions are candidates for ending check.
-                if (!pieceCanJump) {
-                    movesCausingCheck.addAll(reverseMoves);
-                    break;
-                }
-                movesCausingCheck.add(reverseMove);
-            }
-        }
-        return movesCausingCheck;
+        return LegalMoveGenerator.isInCheck(activeBoard, teamColor);
     }
 
     /**
@@ -198,16 +395,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        // First, see if the king of teamColor is in check. If so, save all the associated reverseSearchCheck moves.
-        ChessPiece targetKing = new ChessPiece(teamColor, ChessPiece.PieceType.KING);
-        ChessPosition kingPosition = activeBoard.findPiece(targetKing).iterator().next();
-        HashSet<ChessMove> checkingMoves = reverseSearchCheckAll(activeBoard, kingPosition, teamColor);
-        if (checkingMoves.isEmpty()) {
-            return false;
-        }
-        // For all pieces of the team in check, see if there are any validMoves (moves that
-        // don't leave the king in Check). If there are no valid moves, the king is in Checkmate.
-        return !validMovesExist(activeBoard, teamColor);
+        // If the King is in check and no move of any piece gets it out of check, it is checkmate
+        return evaluateStatus(teamColor) == GameStatus.CHECKMATE;
     }
 
     /**
@@ -218,29 +407,18 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        // First, see if the king is in check. If so, it cannot be stalemate.
-        if (isInCheck(teamColor)) {
-            return false;
-        }
-        // If there are no valid moves, this is a stalemate.
-        return !validMovesExist(activeBoard, teamColor);
-    }
-
-    private boolean validMovesExist(ChessBoard someBoard, ChessGame.TeamColor someTeam) {
-        // Consider all chess pieces
-        for (ChessPiece.PieceType pieceType : ChessPiece.PieceType.values()) {
-            ChessPiece piece = new ChessPiece(someTeam, pieceType);
-            Collection<ChessPosition> livingPieces = someBoard.findPiece(piece);
-            // If any pieces of that type could be found belonging to this team...
-            for (ChessPosition potentialCheckSavior : livingPieces) {
-                // ... return true if any one among them has a valid move.
-                if (!validMoves(potentialCheckSavior).isEmpty()) {
-                    return true;
-                }
-            }
-        }
-        // If all validMoves generated for this team's pieces are empty, there are no valid moves.
-        return false;
+        // If the king is in check it cannot be stalemate. Otherwise, having no valid moves is a stalemate.
+        return evaluateStatus(teamColor) == GameStatus.STALEMATE;
+    }
+
+    /**
+     * Gets the Zobrist hash of the current position. The board maintains the hash of its pieces
+     * incrementally as they are added and moved, and the team to move is folded in here.
+     *
+     * @return a 64-bit hash identifying the piece placement and the team to move
+     */
+    public long getZobristKey() {
+        return activeBoard.getZobristKey() ^ Zobrist.sideToMoveKey(activeTeam);
     }
 
     /**
@@ -249,6 +427,8 @@ public class ChessGame {
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
+        // Nothing cached needs clearing: cached moves are looked up by position, so those of the old
+        // board are never found for the new one, even if the new board is later changed in place
         activeBoard = board;
     }
 
@@ -261,6 +441,31 @@ public class ChessGame {
         return activeBoard.deepCopy();
     }
 
+    // The current chessboard itself rather than a copy, for code in this package that only reads it
+    ChessBoard boardView() {
+        return activeBoard;
+    }
+
+    // The moves made so far, oldest first, for code in this package that only reads them
+    List<ChessMove> moveHistoryView() {
+        return moveHistory;
+    }
+
+    /**
+     * Creates an independent copy of this game, so that moves made on the copy leave this game untouched
+     *
+     * @return a new game with a copy of this game's board, team turn, move history and move counters
+     */
+    public ChessGame deepCopy() {
+        ChessGame gameCopy = new ChessGame(activeBoard.deepCopy(), activeTeam, new ArrayList<>(moveHistory), halfmoveClock, fullmoveNumber);
+        if (positionKeys != null) {
+            gameCopy.positionKeys = Arrays.copyOf(positionKeys, Math.max(16, positionKeyCount * 2));
+            gameCopy.positionKeyCount = positionKeyCount;
+            gameCopy.repetitionCount = repetitionCount;
+        }
+        return gameCopy;
+    }
+
     @Override
     public String toString() {
         return String.format("ChessGame{activeTeam: %s, activeBoard:\n%s\n}", activeTeam, activeBoard);
@@ -277,6 +482,6 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(activeBoard, activeTeam);
+        return Long.hashCode(getZobristKey());
     }
 }
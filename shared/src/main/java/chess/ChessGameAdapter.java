@@ -0,0 +1,97 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Writes a ChessGame as its position in FEN and its move history in coordinate notation:
+ * {"fen": "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1", "moveHistory": ["e2e4"]}
+ * <p>
+ * Games stored by earlier versions were written by reflection as {"activeBoard": ..., "activeTeam": ...,
+ * "moveHistory": [...], ...}. Those fields can be read too, in any mix with the new ones, and the move
+ * counters start at 0 and 1 when they are missing.
+ */
+final class ChessGameAdapter extends TypeAdapter<ChessGame> {
+
+    private final ChessBoardAdapter boardAdapter;
+    private final ChessMoveAdapter moveAdapter;
+
+    ChessGameAdapter(ChessBoardAdapter boardAdapter, ChessMoveAdapter moveAdapter) {
+        this.boardAdapter = boardAdapter;
+        this.moveAdapter = moveAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        out.beginObject();
+        out.name("fen").value(game.toFen());
+        out.name("moveHistory");
+        out.beginArray();
+        for (ChessMove move : game.moveHistoryView()) {
+            moveAdapter.write(out, move);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        ChessBoard board = null;
+        ChessGame.TeamColor activeTeam = ChessGame.TeamColor.WHITE;
+        ArrayList<ChessMove> moveHistory = new ArrayList<>();
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "fen" -> {
+                    ChessGame fenGame = parseFen(in.nextString());
+                    board = fenGame.boardView();
+                    activeTeam = fenGame.getTeamTurn();
+                    halfmoveClock = fenGame.getHalfmoveClock();
+                    fullmoveNumber = fenGame.getFullmoveNumber();
+                }
+                case "activeBoard" -> board = boardAdapter.read(in);
+                case "activeTeam" -> activeTeam = ChessPieceAdapter.readEnum(in, ChessGame.TeamColor.class);
+                case "moveHistory" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        moveHistory.add(moveAdapter.read(in));
+                    }
+                    in.endArray();
+                }
+                case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                case "fullmoveNumber" -> fullmoveNumber = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (board == null) {
+            // A game without a board has not started, as with a newly created ChessGame
+            board = new ChessBoard();
+            board.resetBoard();
+        }
+        return new ChessGame(board, activeTeam, moveHistory, halfmoveClock, fullmoveNumber);
+    }
+
+    private static ChessGame parseFen(String fen) {
+        try {
+            return Fen.parse(fen);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+}
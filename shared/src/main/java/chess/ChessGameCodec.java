@@ -0,0 +1,232 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact, versioned binary encoding of a ChessGame, for storing games and sending them over the wire
+ * in a fraction of the space their JSON takes.
+ * <p>
+ * Layout of version 1, in order:
+ * <ul>
+ *     <li>1 byte: the format version</li>
+ *     <li>1 byte: flags. Bit 0 is set when Black is to move. The other bits are reserved for castling and
+ *     en passant rights, which this implementation does not have, and are always 0.</li>
+ *     <li>32 bytes: the 64 squares as 4-bit codes, two to a byte with the lower square index in the low
+ *     half. A code is 0 for an empty square, or the Bitboards.pieceIndex of the piece plus one.</li>
+ *     <li>varint: the halfmove clock</li>
+ *     <li>varint: the full move number</li>
+ *     <li>varint: the number of moves in the history, followed by each move as a 2-byte packed move
+ *     (see PackedMove) without its capture flag, oldest first</li>
+ * </ul>
+ * Varints are unsigned LEB128: seven bits to a byte, lowest first, with the top bit set on every byte
+ * but the last. Moves are kept at a fixed two bytes rather than as varints, since a packed move's 15
+ * bits would take two or three bytes as a varint.
+ */
+public final class ChessGameCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int BLACK_TO_MOVE_FLAG = 1;
+    private static final int BOARD_BYTES = 32;
+    // Start square, end square and promotion type, without the capture flag a ChessMove cannot carry
+    private static final int MOVEMENT_MASK = 0x7FFF;
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private ChessGameCodec() {
+    }
+
+    /**
+     * @param game the game to measure
+     * @return the exact number of bytes encode() writes for the game
+     */
+    public static int encodedSize(ChessGame game) {
+        int moveCount = game.moveHistoryView().size();
+        return 2 + BOARD_BYTES + varintSize(game.getHalfmoveClock()) + varintSize(game.getFullmoveNumber())
+               + varintSize(moveCount) + 2 * moveCount;
+    }
+
+    /**
+     * Encodes a game into a new array of exactly the right size
+     *
+     * @param game the game to encode, which is left unchanged
+     * @return the encoded game
+     */
+    public static byte[] encode(ChessGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(game));
+        encode(game, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Writes a game at the buffer's position, advancing the position past it
+     *
+     * @param game   the game to encode, which is left unchanged
+     * @param buffer the buffer to write to, with at least encodedSize(game) bytes remaining
+     * @throws java.nio.BufferOverflowException if the buffer does not have room for the game
+     */
+    public static void encode(ChessGame game, ByteBuffer buffer) {
+        buffer.put(VERSION);
+        buffer.put((byte) ((game.getTeamTurn() == ChessGame.TeamColor.BLACK) ? BLACK_TO_MOVE_FLAG : 0));
+
+        ChessBoard board = game.boardView();
+        for (int square = 0; square < 64; square += 2) {
+            int lowCode = board.pieceIndexAt(square) + 1;
+            int highCode = board.pieceIndexAt(square + 1) + 1;
+            buffer.put((byte) (lowCode | (highCode << 4)));
+        }
+
+        putVarint(buffer, game.getHalfmoveClock());
+        putVarint(buffer, game.getFullmoveNumber());
+        List<ChessMove> moveHistory = game.moveHistoryView();
+        putVarint(buffer, moveHistory.size());
+        for (ChessMove move : moveHistory) {
+            buffer.putShort((short) PackedMove.fromChessMove(move));
+        }
+    }
+
+    /**
+     * Decodes a game from an array holding nothing else
+     *
+     * @param encodedGame the bytes written by encode()
+     * @return a new game equal to the one encoded, with the same move history and move counters
+     * @throws IllegalArgumentException if the bytes are not a game in a known version of the format
+     */
+    public static ChessGame decode(byte[] encodedGame) {
+        ByteBuffer buffer = ByteBuffer.wrap(encodedGame);
+        ChessGame game = decode(buffer);
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Encoded game has " + buffer.remaining() + " unexpected bytes after its end.");
+        }
+        return game;
+    }
+
+    /**
+     * Reads a game starting at the buffer's position, advancing the position past it
+     *
+     * @param buffer the buffer to read from
+     * @return a new game equal to the one encoded, with the same move history and move counters
+     * @throws IllegalArgumentException if the bytes are not a game in a known version of the format
+     */
+    public static ChessGame decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Encoded game has unsupported format version " + version + ".");
+            }
+            int flags = buffer.get();
+            if ((flags & ~BLACK_TO_MOVE_FLAG) != 0) {
+                throw new IllegalArgumentException("Encoded game has unknown flags " + flags + ".");
+            }
+            ChessGame.TeamColor activeTeam = ((flags & BLACK_TO_MOVE_FLAG) != 0) ? ChessGame.TeamColor.BLACK
+                                                                                 : ChessGame.TeamColor.WHITE;
+
+            ChessBoard board = new ChessBoard();
+            for (int square = 0; square < 64; square += 2) {
+                int squareCodes = buffer.get() & 0xFF;
+                placeSquareCode(board, square, squareCodes & 0xF);
+                placeSquareCode(board, square + 1, squareCodes >>> 4);
+            }
+
+            // Varints are never negative, so the halfmove clock needs no check of its own, as in Fen.parse()
+            int halfmoveClock = getVarint(buffer);
+            int fullmoveNumber = getVarint(buffer);
+            if (fullmoveNumber < 1) {
+                throw new IllegalArgumentException("Encoded game has full move number " + fullmoveNumber + ", but it must be at least 1.");
+            }
+            int moveCount = getVarint(buffer);
+            // Checked before allocating, so a corrupt count cannot ask for a huge list
+            if (moveCount > buffer.remaining() / 2) {
+                throw new IllegalArgumentException("Encoded game claims " + moveCount + " moves but is too short to hold them.");
+            }
+            ArrayList<ChessMove> moveHistory = new ArrayList<>(moveCount);
+            for (int i = 0; i < moveCount; i++) {
+                moveHistory.add(PackedMove.toChessMove(checkMove(buffer.getShort() & MOVEMENT_MASK)));
+            }
+            return new ChessGame(board, activeTeam, moveHistory, halfmoveClock, fullmoveNumber);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Encoded game ends partway through.", e);
+        }
+    }
+
+    // A move in the history is later replayed backwards to rebuild the repetition history, so one that
+    // could never have been made is rejected here
+    private static int checkMove(int packedMove) {
+        if (PackedMove.fromSquare(packedMove) == PackedMove.toSquare(packedMove)) {
+            throw new IllegalArgumentException("Encoded game has a move that starts and ends on square "
+                                               + PackedMove.fromSquare(packedMove) + ".");
+        }
+        int promotionCode = packedMove >>> 12;
+        if (promotionCode != 0) {
+            ChessPiece.PieceType promotionType = (promotionCode <= PIECE_TYPES.length) ? PIECE_TYPES[promotionCode - 1] : null;
+            if (promotionType == null || promotionType == ChessPiece.PieceType.KING || promotionType == ChessPiece.PieceType.PAWN) {
+                throw new IllegalArgumentException("Encoded game has a move with an unknown promotion code " + promotionCode + ".");
+            }
+        }
+        return packedMove;
+    }
+
+    // Squares are decoded in order onto an empty board, so each is always still empty
+    private static void placeSquareCode(ChessBoard board, int square, int squareCode) {
+        if (squareCode > 12) {
+            throw new IllegalArgumentException("Encoded game has an unknown piece code " + squareCode + ".");
+        }
+        if (squareCode != 0) {
+            board.putPiece(square, squareCode - 1);
+        }
+    }
+
+    /**
+     * @param value a non-negative value
+     * @return how many bytes putVarint() writes for the value
+     */
+    public static int varintSize(int value) {
+        // Each byte holds 7 bits, and 0 still takes one byte
+        return Math.max(1, (38 - Integer.numberOfLeadingZeros(value)) / 7);
+    }
+
+    /**
+     * Writes a non-negative value as an unsigned LEB128 varint
+     *
+     * @param buffer the buffer to write to
+     * @param value  the value to write
+     */
+    public static void putVarint(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Only non-negative values can be written as varints: " + value);
+        }
+        while (value >= 0x80) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Reads a varint written by putVarint()
+     *
+     * @param buffer the buffer to read from
+     * @return the value read
+     * @throws IllegalArgumentException if the varint is too long to be a non-negative int
+     * @throws BufferUnderflowException if the buffer ends partway through the varint
+     */
+    public static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 28; shift += 7) {
+            int varintByte = buffer.get();
+            value |= (varintByte & 0x7F) << shift;
+            if ((varintByte & 0x80) == 0) {
+                return value;
+            }
+        }
+        // The fifth byte can only hold bits 28-30. Anything above them, or another byte after it, would
+        // make the value negative or be silently shifted away.
+        int lastByte = buffer.get();
+        if ((lastByte & 0xF8) != 0) {
+            throw new IllegalArgumentException("Varint is too long to be a non-negative int.");
+        }
+        return value | (lastByte << 28);
+    }
+}
@@ -0,0 +1,48 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Gson configured with hand-written, streaming adapters for the chess types, used by the server and
+ * client for everything they send, receive and store.
+ * <p>
+ * Without these adapters Gson reflects over every field of a game, writing the board as an array of
+ * numbers and each move as three nested objects. The adapters instead write a game as a FEN string and
+ * its moves in coordinate notation, and read and write straight through JsonReader and JsonWriter
+ * without building an intermediate tree. Each adapter also reads the older reflective form of its type,
+ * so games stored or sent before the adapters existed can still be read.
+ */
+public final class ChessJson {
+
+    private static final Gson GSON = registerTypeAdapters(new GsonBuilder()).create();
+
+    private ChessJson() {
+    }
+
+    /**
+     * @return a shared Gson with the chess adapters registered. Gson instances are thread-safe, so the
+     * same one can be used everywhere.
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Registers the chess adapters on a builder, for callers that need further configuration of their own
+     *
+     * @param builder the builder to register the adapters on
+     * @return the same builder, for chaining
+     */
+    public static GsonBuilder registerTypeAdapters(GsonBuilder builder) {
+        ChessPositionAdapter positionAdapter = new ChessPositionAdapter();
+        ChessPieceAdapter pieceAdapter = new ChessPieceAdapter();
+        ChessMoveAdapter moveAdapter = new ChessMoveAdapter(positionAdapter);
+        ChessBoardAdapter boardAdapter = new ChessBoardAdapter(pieceAdapter);
+        return builder.registerTypeAdapter(ChessPosition.class, positionAdapter.nullSafe())
+                      .registerTypeAdapter(ChessPiece.class, pieceAdapter.nullSafe())
+                      .registerTypeAdapter(ChessMove.class, moveAdapter.nullSafe())
+                      .registerTypeAdapter(ChessBoard.class, boardAdapter.nullSafe())
+                      .registerTypeAdapter(ChessGame.class, new ChessGameAdapter(boardAdapter, moveAdapter).nullSafe());
+    }
+}
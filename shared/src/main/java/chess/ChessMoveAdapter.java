@@ -0,0 +1,103 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a ChessMove in coordinate notation: the start and end squares followed by the letter of any
+ * promotion piece, such as "e2e4" or "a7a8q". A move to or from a square off the board cannot be written
+ * that way, so it is written in the older {"startPosition": ..., "endPosition": ..., "promotionPiece": ...}
+ * form instead. Both forms can be read.
+ */
+final class ChessMoveAdapter extends TypeAdapter<ChessMove> {
+
+    // The letter of each promotion piece, indexed by PieceType ordinal
+    private static final String PROMOTION_LETTERS = "kqbnrp";
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private final ChessPositionAdapter positionAdapter;
+
+    ChessMoveAdapter(ChessPositionAdapter positionAdapter) {
+        this.positionAdapter = positionAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, ChessMove move) throws IOException {
+        if (move.getStartPosition().isOnBoard() && move.getEndPosition().isOnBoard()) {
+            out.value(toCoordinateNotation(move));
+            return;
+        }
+        out.beginObject();
+        out.name("startPosition");
+        positionAdapter.write(out, move.getStartPosition());
+        out.name("endPosition");
+        positionAdapter.write(out, move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            out.name("promotionPiece").value(move.getPromotionPiece().name());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public ChessMove read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            return fromCoordinateNotation(in.nextString());
+        }
+
+        ChessPosition startPosition = null;
+        ChessPosition endPosition = null;
+        ChessPiece.PieceType promotionPiece = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "startPosition" -> startPosition = positionAdapter.read(in);
+                case "endPosition" -> endPosition = positionAdapter.read(in);
+                case "promotionPiece" -> promotionPiece = ChessPieceAdapter.readEnum(in, ChessPiece.PieceType.class);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new ChessMove(startPosition, endPosition, promotionPiece);
+    }
+
+    /**
+     * @param move a move between two squares on the board
+     * @return the move in coordinate notation, such as "e2e4" or "a7a8q"
+     */
+    static String toCoordinateNotation(ChessMove move) {
+        String startSquare = ChessPositionAdapter.squareName(Bitboards.squareIndex(move.getStartPosition()));
+        String endSquare = ChessPositionAdapter.squareName(Bitboards.squareIndex(move.getEndPosition()));
+        if (move.getPromotionPiece() == null) {
+            return startSquare.concat(endSquare);
+        }
+        return new StringBuilder(5).append(startSquare).append(endSquare)
+                                   .append(PROMOTION_LETTERS.charAt(move.getPromotionPiece().ordinal())).toString();
+    }
+
+    /**
+     * @param notation a move in coordinate notation, such as "e2e4" or "a7a8q"
+     * @return the move
+     * @throws JsonParseException if the text is not a move in coordinate notation
+     */
+    static ChessMove fromCoordinateNotation(String notation) {
+        int length = notation.length();
+        int startSquare = (length == 4 || length == 5) ? ChessPositionAdapter.parseSquare(notation, 0) : -1;
+        int endSquare = (startSquare >= 0) ? ChessPositionAdapter.parseSquare(notation, 2) : -1;
+        int promotionIndex = (length == 5) ? PROMOTION_LETTERS.indexOf(notation.charAt(4)) : -1;
+        if (endSquare < 0 || (length == 5 && promotionIndex < 0)) {
+            throw new JsonParseException("Chess move is not in coordinate notation: " + notation);
+        }
+        return new ChessMove(ChessPosition.ofSquare(startSquare), ChessPosition.ofSquare(endSquare),
+                             (promotionIndex < 0) ? null : PIECE_TYPES[promotionIndex]);
+    }
+}
@@ -1,6 +1,7 @@
 package chess;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Objects;
 
 /**
@@ -11,6 +12,18 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    // Pieces are immutable, so one shared instance of each of the 12 pieces, indexed by Bitboards.pieceIndex,
+    // can stand in for every piece the board hands out
+    private static final ChessPiece[] CANONICAL_PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                CANONICAL_PIECES[Bitboards.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -19,19 +32,25 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance of a piece, avoiding creating a new object for pieces that are looked up often
+     *
+     * @return a ChessPiece equal to new ChessPiece(pieceColor, type)
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return CANONICAL_PIECES[Bitboards.pieceIndex(pieceColor, type)];
+    }
+
+    /**
+     * @return the shared instance of the piece with the given Bitboards.pieceIndex
+     */
+    static ChessPiece ofPieceIndex(int pieceIndex) {
+        return CANONICAL_PIECES[pieceIndex];
+    }
+
     public static ChessPiece fromLetter(Character charPiece) {
-        String charPiecePossibilities = "qrbkpnQRBKPN";
-        ChessGame.TeamColor myColor;
-        PieceType type;
-        if (!charPiecePossibilities.contains(String.valueOf(charPiece))) {
-            return null;
-        } else if (Character.isUpperCase(charPiece)) {
-            myColor = ChessGame.TeamColor.WHITE;
-            charPiece = Character.toLowerCase(charPiece);
-        } else {
-            myColor = ChessGame.TeamColor.BLACK;
-        }
-        type = switch (charPiece) {
+        ChessGame.TeamColor myColor = Character.isUpperCase(charPiece) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        PieceType type = switch (Character.toLowerCase(charPiece)) {
             case 'q' -> PieceType.QUEEN;
             case 'r' -> PieceType.ROOK;
             case 'b' -> PieceType.BISHOP;
@@ -40,8 +59,10 @@ public class ChessPiece {
             case 'n' -> PieceType.KNIGHT;
             default -> null;
         };
-
-        return new ChessPiece(myColor, type);
+        if (type == null) {
+            return null;
+        }
+        return of(myColor, type);
     }
 
     /**
@@ -74,18 +95,13 @@ public class ChessPiece {
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         ChessPiece myPiece = board.getPiece(myPosition);
-        ChessGame.TeamColor myColor = myPiece.getTeamColor();
-        MoveRules pieceRules = switch (myPiece.getPieceType()) {
-            case QUEEN -> new QueenRules(myColor);
-            case ROOK -> new RookRules(myColor);
-            case BISHOP -> new BishopRules(myColor);
-            case KING -> new KingRules(myColor);
-            case PAWN -> new PawnRules(myColor);
-            case KNIGHT -> new KnightRules(myColor);
-        };
+        MoveList pieceMoveList = new MoveList(32);
+        MoveRules.forPiece(myPiece.getPieceType()).addMoves(board, Bitboards.squareIndex(myPosition), pieceMoveList);
 
         // Returns a HashSet of the valid ChessMove options
-        return pieceRules.getMoves(board, myPosition);
+        HashSet<ChessMove> pieceMoveSet = new HashSet<>();
+        pieceMoveList.addChessMovesTo(pieceMoveSet);
+        return pieceMoveSet;
     }
 
     public Character toChar() {
@@ -124,6 +140,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        // The same value as Objects.hash(pieceColor, type), without boxing the fields into an array
+        return 31 * (31 + Objects.hashCode(pieceColor)) + Objects.hashCode(type);
     }
 }
@@ -0,0 +1,61 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a ChessPiece as its FEN letter, upper case for White and lower case for Black, such as "N" or
+ * "q". Pieces in the older {"pieceColor": "WHITE", "type": "KNIGHT"} form can be read too.
+ */
+final class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
+
+    @Override
+    public void write(JsonWriter out, ChessPiece piece) throws IOException {
+        out.value(String.valueOf(piece.toChar()));
+    }
+
+    @Override
+    public ChessPiece read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            String letter = in.nextString();
+            ChessPiece piece = (letter.length() == 1) ? ChessPiece.fromLetter(letter.charAt(0)) : null;
+            if (piece == null) {
+                throw new JsonParseException("Chess piece is not a piece letter: " + letter);
+            }
+            return piece;
+        }
+
+        ChessGame.TeamColor pieceColor = null;
+        ChessPiece.PieceType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "pieceColor" -> pieceColor = readEnum(in, ChessGame.TeamColor.class);
+                case "type" -> type = readEnum(in, ChessPiece.PieceType.class);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (pieceColor == null || type == null) {
+            throw new JsonParseException("Chess piece needs both a pieceColor and a type.");
+        }
+        return ChessPiece.of(pieceColor, type);
+    }
+
+    /**
+     * Reads an enum constant written by name, as Gson writes enums by default
+     */
+    static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> enumClass) throws IOException {
+        String constantName = in.nextString();
+        try {
+            return Enum.valueOf(enumClass, constantName);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Unknown " + enumClass.getSimpleName() + ": " + constantName, e);
+        }
+    }
+}
@@ -32,11 +32,41 @@ public class ChessPosition {
                                                                        '7', 7,
                                                                        '8', 8);
 
+    // Positions are immutable, so one shared instance of each of the 64 squares, indexed by
+    // Bitboards.squareIndex, can stand in for every on-board position created internally
+    private static final ChessPosition[] CANONICAL_POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            CANONICAL_POSITIONS[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     public ChessPosition(int row, int column) {
         this.row = row;
         this.column = column;
     }
 
+    /**
+     * Gets the shared instance of a position, avoiding creating a new object for positions that are used often.
+     * Positions off the board have no shared instance, so a new one is created for them.
+     *
+     * @return a ChessPosition equal to new ChessPosition(row, column)
+     */
+    public static ChessPosition of(int row, int column) {
+        if (row < 1 || row > 8 || column < 1 || column > 8) {
+            return new ChessPosition(row, column);
+        }
+        return CANONICAL_POSITIONS[((row - 1) << 3) | (column - 1)];
+    }
+
+    /**
+     * @return the shared instance of the position with the given 0-63 square index
+     */
+    static ChessPosition ofSquare(int square) {
+        return CANONICAL_POSITIONS[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -72,7 +102,7 @@ public class ChessPosition {
      * @return a new ChessPosition object derived from some movement based on this piece's position
      */
     public ChessPosition getMovedPosition(int moveRow, int moveCol) {
-        return new ChessPosition(row + moveRow, column + moveCol);
+        return ChessPosition.of(row + moveRow, column + moveCol);
     }
 
     /**
@@ -89,7 +119,7 @@ public class ChessPosition {
         }
         int column = ChessPosition.fileToCol(fileRank.charAt(0));
         int row = ChessPosition.rankToRow(fileRank.charAt(1));
-        return new ChessPosition(row, column);
+        return ChessPosition.of(row, column);
     }
 
     private static int fileToCol(char fileChar) throws IllegalArgumentException {
@@ -126,6 +156,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        // The same value as Objects.hash(row, column), without boxing the fields into an array
+        return 31 * (31 + row) + column;
     }
 }
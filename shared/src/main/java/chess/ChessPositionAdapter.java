@@ -0,0 +1,86 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a ChessPosition as its square name, such as "e4". Positions off the board have no square name,
+ * so they are written in the older {"row": 9, "column": 5} form instead. Both forms can be read.
+ */
+final class ChessPositionAdapter extends TypeAdapter<ChessPosition> {
+
+    // The name of each square, indexed by Bitboards.squareIndex, so that writing a square creates no string
+    private static final String[] SQUARE_NAMES = new String[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARE_NAMES[square] = String.valueOf(new char[]{(char) ('a' + Bitboards.columnOf(square) - 1),
+                                                             (char) ('1' + Bitboards.rowOf(square) - 1)});
+        }
+    }
+
+    @Override
+    public void write(JsonWriter out, ChessPosition position) throws IOException {
+        if (position.isOnBoard()) {
+            out.value(squareName(Bitboards.squareIndex(position)));
+        } else {
+            out.beginObject();
+            out.name("row").value(position.getRow());
+            out.name("column").value(position.getColumn());
+            out.endObject();
+        }
+    }
+
+    @Override
+    public ChessPosition read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            String squareName = in.nextString();
+            int square = (squareName.length() == 2) ? parseSquare(squareName, 0) : -1;
+            if (square < 0) {
+                throw new JsonParseException("Chess position is not a square name: " + squareName);
+            }
+            return ChessPosition.ofSquare(square);
+        }
+
+        int row = 0;
+        int column = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "row" -> row = in.nextInt();
+                case "column" -> column = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return ChessPosition.of(row, column);
+    }
+
+    /**
+     * @return the name of the square with the given 0-63 square index, such as "e4"
+     */
+    static String squareName(int square) {
+        return SQUARE_NAMES[square];
+    }
+
+    /**
+     * Reads a square name from two characters of some text
+     *
+     * @param text   the text holding the square name
+     * @param offset where in the text the square name starts
+     * @return the 0-63 square index, or -1 if the characters are not a square name
+     */
+    static int parseSquare(CharSequence text, int offset) {
+        char fileChar = text.charAt(offset);
+        char rankChar = text.charAt(offset + 1);
+        if (fileChar < 'a' || fileChar > 'h' || rankChar < '1' || rankChar > '8') {
+            return -1;
+        }
+        return Bitboards.squareIndex(rankChar - '0', fileChar - 'a' + 1);
+    }
+}
@@ -0,0 +1,262 @@
+package chess;
+
+import java.util.ArrayList;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN), the standard one-line description of a
+ * chess position, e.g. "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1".
+ * <p>
+ * The six fields are the piece placement from row 8 down to row 1, the team to move, the castling
+ * rights, the en passant target square, the halfmove clock and the full move number. This implementation
+ * has no castling or en passant, so those two fields are checked for well-formedness when read but
+ * otherwise ignored, and are always written as "-". The two move counters may be left off when reading,
+ * in which case they start at 0 and 1.
+ * <p>
+ * The parser makes a single pass over the characters of its input and places each piece straight onto
+ * the board as it is read, without splitting the input into intermediate strings.
+ */
+public final class Fen {
+
+    // The letter of each piece, indexed by Bitboards.pieceIndex: upper case for White, lower case for Black
+    private static final String PIECE_LETTERS = "KQBNRPkqbnrp";
+    private static final String CASTLING_LETTERS = "KQkq";
+
+    private final CharSequence text;
+    private int index;
+
+    private Fen(CharSequence text) {
+        this.text = text;
+        this.index = 0;
+    }
+
+    /**
+     * Sets up a game from a FEN string. Leading and trailing whitespace is ignored, and fields may be
+     * separated by any run of whitespace.
+     *
+     * @param fen the position, in Forsyth-Edwards Notation
+     * @return a new game in that position, with no move history
+     * @throws IllegalArgumentException if the text is not a valid FEN string
+     */
+    public static ChessGame parse(CharSequence fen) {
+        return new Fen(fen).parseGame();
+    }
+
+    /**
+     * Writes a game's current position as a FEN string
+     *
+     * @param game the game whose position to write
+     * @return the position, in Forsyth-Edwards Notation
+     */
+    public static String format(ChessGame game) {
+        return appendTo(new StringBuilder(90), game).toString();
+    }
+
+    /**
+     * Writes a game's current position as a FEN string onto the end of a StringBuilder
+     *
+     * @param builder the builder to append to
+     * @param game    the game whose position to write
+     * @return the same builder, for chaining
+     */
+    public static StringBuilder appendTo(StringBuilder builder, ChessGame game) {
+        appendPlacement(builder, game.boardView());
+        builder.append(' ').append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 'w' : 'b');
+        builder.append(" - - ").append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+        return builder;
+    }
+
+    /**
+     * Reads the piece placement field alone, such as "8/8/8/8/8/8/8/K6k", into a new board
+     *
+     * @param placement the piece placement, with nothing before or after it
+     * @return a new board holding those pieces
+     * @throws IllegalArgumentException if the text is not a valid piece placement
+     */
+    static ChessBoard boardFromPlacement(CharSequence placement) {
+        Fen parser = new Fen(placement);
+        ChessBoard board = parser.parsePlacement();
+        if (parser.index < placement.length()) {
+            throw parser.malformed("piece placement has unexpected text after it");
+        }
+        return board;
+    }
+
+    // Writes the piece placement field alone, from row 8 down to row 1
+    static void appendPlacement(StringBuilder builder, ChessBoard board) {
+        for (int rowPos = 8; rowPos >= 1; rowPos--) {
+            int emptySquares = 0;
+            for (int colPos = 1; colPos <= 8; colPos++) {
+                int pieceIndex = board.pieceIndexAt(Bitboards.squareIndex(rowPos, colPos));
+                if (pieceIndex < 0) {
+                    emptySquares++;
+                    continue;
+                }
+                if (emptySquares > 0) {
+                    builder.append((char) ('0' + emptySquares));
+                    emptySquares = 0;
+                }
+                builder.append(PIECE_LETTERS.charAt(pieceIndex));
+            }
+            if (emptySquares > 0) {
+                builder.append((char) ('0' + emptySquares));
+            }
+            if (rowPos > 1) {
+                builder.append('/');
+            }
+        }
+    }
+
+    private ChessGame parseGame() {
+        skipWhitespace();
+        ChessBoard board = parsePlacement();
+        requireFieldSeparator("an active color");
+        ChessGame.TeamColor activeTeam = parseActiveColor();
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if (hasAnotherField()) {
+            parseCastlingRights();
+            requireFieldSeparator("an en passant target square");
+            parseEnPassantSquare();
+            if (hasAnotherField()) {
+                halfmoveClock = parseNumber("halfmove clock");
+                requireFieldSeparator("a full move number");
+                fullmoveNumber = parseNumber("full move number");
+                if (fullmoveNumber < 1) {
+                    throw malformed("full move number must be at least 1");
+                }
+            }
+        }
+
+        skipWhitespace();
+        if (index < text.length()) {
+            throw malformed("has unexpected text after the last field");
+        }
+        return new ChessGame(board, activeTeam, new ArrayList<>(), halfmoveClock, fullmoveNumber);
+    }
+
+    // Reads the rows from 8 down to 1, each a run of piece letters and counts of empty squares
+    private ChessBoard parsePlacement() {
+        ChessBoard board = new ChessBoard();
+        int rowPos = 8;
+        int colPos = 1;
+        while (index < text.length() && !Character.isWhitespace(text.charAt(index))) {
+            char fenChar = text.charAt(index++);
+            if (fenChar == '/') {
+                if (colPos != 9 || rowPos == 1) {
+                    throw malformed("piece placement must have 8 rows of 8 squares");
+                }
+                rowPos--;
+                colPos = 1;
+            } else if (fenChar >= '1' && fenChar <= '8') {
+                colPos += fenChar - '0';
+                if (colPos > 9) {
+                    throw malformed("piece placement has a row of more than 8 squares");
+                }
+            } else {
+                int pieceIndex = PIECE_LETTERS.indexOf(fenChar);
+                if (pieceIndex < 0) {
+                    throw malformed("piece placement has an unknown piece '" + fenChar + "'");
+                }
+                if (colPos > 8) {
+                    throw malformed("piece placement has a row of more than 8 squares");
+                }
+                // Each square is visited once, so it is always still empty
+                board.putPiece(Bitboards.squareIndex(rowPos, colPos), pieceIndex);
+                colPos++;
+            }
+        }
+        if (rowPos != 1 || colPos != 9) {
+            throw malformed("piece placement must have 8 rows of 8 squares");
+        }
+        return board;
+    }
+
+    private ChessGame.TeamColor parseActiveColor() {
+        char colorChar = text.charAt(index++);
+        requireFieldEnd("active color must be 'w' or 'b'");
+        return switch (colorChar) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw malformed("active color must be 'w' or 'b'");
+        };
+    }
+
+    // Either "-" or up to one each of K, Q, k and q, in that order
+    private void parseCastlingRights() {
+        if (text.charAt(index) == '-') {
+            index++;
+        } else {
+            int startIndex = index;
+            for (int i = 0; i < CASTLING_LETTERS.length(); i++) {
+                if (index < text.length() && text.charAt(index) == CASTLING_LETTERS.charAt(i)) {
+                    index++;
+                }
+            }
+            if (index == startIndex) {
+                throw malformed("castling rights must be '-' or some of 'KQkq'");
+            }
+        }
+        requireFieldEnd("castling rights must be '-' or some of 'KQkq'");
+    }
+
+    // Either "-" or the square on row 3 or 6 that a pawn just skipped over
+    private void parseEnPassantSquare() {
+        char fileChar = text.charAt(index++);
+        if (fileChar != '-') {
+            char rankChar = (index < text.length()) ? text.charAt(index++) : ' ';
+            if (fileChar < 'a' || fileChar > 'h' || (rankChar != '3' && rankChar != '6')) {
+                throw malformed("en passant target must be '-' or a square on row 3 or 6");
+            }
+        }
+        requireFieldEnd("en passant target must be '-' or a square on row 3 or 6");
+    }
+
+    private int parseNumber(String fieldName) {
+        int value = 0;
+        int startIndex = index;
+        while (index < text.length() && !Character.isWhitespace(text.charAt(index))) {
+            char digitChar = text.charAt(index++);
+            if (digitChar < '0' || digitChar > '9' || value > (Integer.MAX_VALUE - 9) / 10) {
+                throw malformed(fieldName + " must be a non-negative whole number");
+            }
+            value = value * 10 + (digitChar - '0');
+        }
+        if (index == startIndex) {
+            throw malformed(fieldName + " is missing");
+        }
+        return value;
+    }
+
+    // Moves past the whitespace between two fields, failing if there is no next field
+    private void requireFieldSeparator(String nextField) {
+        int startIndex = index;
+        skipWhitespace();
+        if (index == startIndex || index == text.length()) {
+            throw malformed("needs " + nextField);
+        }
+    }
+
+    // Checks that the field just read is not followed by more characters of the same field
+    private void requireFieldEnd(String problem) {
+        if (index < text.length() && !Character.isWhitespace(text.charAt(index))) {
+            throw malformed(problem);
+        }
+    }
+
+    // Moves past any whitespace and reports whether another field follows it
+    private boolean hasAnotherField() {
+        skipWhitespace();
+        return index < text.length();
+    }
+
+    private void skipWhitespace() {
+        while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+    }
+
+    private IllegalArgumentException malformed(String problem) {
+        return new IllegalArgumentException("FEN string " + problem + ": " + text);
+    }
+}
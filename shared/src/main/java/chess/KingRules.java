@@ -1,24 +1,15 @@
 package chess;
 
-import java.util.HashSet;
-
 public class KingRules extends MoveRules {
 
-    public KingRules(ChessGame.TeamColor pieceColor) {
-        // Tells the parent abstract class whether the piece can move infinitely (recursively) after it starts moving
-        super(false, pieceColor);
+    // The row and column steps a king can take
+    static final int[][] OFFSETS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+    KingRules() {
     }
 
-    protected HashSet<int[]> potentialMovements(ChessBoard board, ChessPosition myPosition) {
-        HashSet<int[]> kingMoves = new HashSet<>(8);
-        kingMoves.add(new int[]{-1, -1});
-        kingMoves.add(new int[]{-1, 0});
-        kingMoves.add(new int[]{-1, 1});
-        kingMoves.add(new int[]{0, -1});
-        kingMoves.add(new int[]{0, 1});
-        kingMoves.add(new int[]{1, -1});
-        kingMoves.add(new int[]{1, 0});
-        kingMoves.add(new int[]{1, 1});
-        return kingMoves;
+    // A king can step one square in any direction, regardless of the board state
+    protected long reachableSquares(ChessBoard board, int fromSquare, ChessGame.TeamColor pieceColor) {
+        return AttackTables.kingAttacks(fromSquare);
     }
 }
@@ -1,25 +1,15 @@
 package chess;
 
-import java.util.HashSet;
-
 public class KnightRules extends MoveRules {
 
-    public KnightRules(ChessGame.TeamColor pieceColor) {
-        // Tells the parent abstract class whether the piece can move infinitely (recursively) after it starts moving
-        super(false, pieceColor);
+    // The row and column jumps a knight can make
+    static final int[][] OFFSETS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+    KnightRules() {
     }
 
-    // None of the queen's potential moves are influenced by the board state
-    protected HashSet<int[]> potentialMovements(ChessBoard board, ChessPosition myPosition) {
-        HashSet<int[]> knightMoves = new HashSet<>(8);
-        knightMoves.add(new int[]{-2, -1});
-        knightMoves.add(new int[]{-2, 1});
-        knightMoves.add(new int[]{-1, -2});
-        knightMoves.add(new int[]{-1, 2});
-        knightMoves.add(new int[]{1, -2});
-        knightMoves.add(new int[]{1, 2});
-        knightMoves.add(new int[]{2, -1});
-        knightMoves.add(new int[]{2, 1});
-        return knightMoves;
+    // A knight jumps to the same fixed squares regardless of the board state
+    protected long reachableSquares(ChessBoard board, int fromSquare, ChessGame.TeamColor pieceColor) {
+        return AttackTables.knightAttacks(fromSquare);
     }
 }
@@ -0,0 +1,149 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of every legal move one team can make in a position, shared by all games.
+ * <p>
+ * The same position is often asked about many times in a row: each piece's moves are asked for
+ * separately, and everyone watching a game asks about the same board. Rather than generating the moves
+ * again for each question, the moves of the whole team are generated once and kept here, keyed by the
+ * Zobrist hash of the board combined with the team. A board that changes in any way hashes to a
+ * different key, so an entry never needs to be invalidated. Each entry also keeps a copy of its board,
+ * which is compared on every lookup so that two positions with the same hash can never be mistaken for
+ * one another. Searches that visit each position once, such as perft and the game status check, go
+ * around the cache rather than filling it with positions nobody asks about again.
+ * <p>
+ * The cache is split into segments, each guarded by its own lock and evicting its least recently used
+ * entry when full, so that games on different threads rarely wait on one another.
+ */
+public final class LegalMoveCache {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int SEGMENT_COUNT = 16; // Must be a power of two
+
+    private static final LegalMoveCache SHARED_CACHE = new LegalMoveCache(DEFAULT_CAPACITY);
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    /**
+     * @param capacity the most positions to keep, spread evenly over the segments
+     */
+    public LegalMoveCache(int capacity) {
+        int segmentCapacity = Math.max(1, capacity / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * @return the cache used by every ChessGame
+     */
+    public static LegalMoveCache shared() {
+        return SHARED_CACHE;
+    }
+
+    /**
+     * Gets every legal move a team can make on a board, generating and storing them if they are not cached
+     *
+     * @param board     the board to find moves on, which is not changed
+     * @param teamColor the team whose moves to find
+     * @return the legal moves in packed form. The array is shared with the cache and must not be changed.
+     */
+    int[] legalMoves(ChessBoard board, ChessGame.TeamColor teamColor) {
+        int[] cachedMoves = cachedLegalMoves(board, teamColor);
+        if (cachedMoves != null) {
+            return cachedMoves;
+        }
+
+        // Moves are generated outside the lock, so another thread asking about the same new position may
+        // generate them too. Both arrive at the same moves, and whichever is stored last is kept.
+        long positionKey = positionKey(board, teamColor);
+        int[] moves = generateLegalMoves(board, teamColor);
+        Segment segment = segmentFor(positionKey);
+        synchronized (segment) {
+            segment.put(positionKey, new CachedMoves(board.deepCopy(), moves));
+        }
+        return moves;
+    }
+
+    /**
+     * Gets every legal move a team can make on a board if they are already cached, without generating them
+     *
+     * @param board     the board to find moves on, which is not changed
+     * @param teamColor the team whose moves to find
+     * @return the legal moves in packed form, or null if they are not cached. The array is shared with
+     * the cache and must not be changed.
+     */
+    int[] cachedLegalMoves(ChessBoard board, ChessGame.TeamColor teamColor) {
+        long positionKey = positionKey(board, teamColor);
+        Segment segment = segmentFor(positionKey);
+        CachedMoves cachedMoves;
+        synchronized (segment) {
+            cachedMoves = segment.get(positionKey);
+        }
+        if (cachedMoves != null && cachedMoves.board().equals(board)) {
+            return cachedMoves.moves();
+        }
+        return null;
+    }
+
+    /**
+     * Removes every cached position
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return how many positions are currently cached
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static long positionKey(ChessBoard board, ChessGame.TeamColor teamColor) {
+        return board.getZobristKey() ^ Zobrist.sideToMoveKey(teamColor);
+    }
+
+    private Segment segmentFor(long positionKey) {
+        return segments[(int) (positionKey >>> 32) & (SEGMENT_COUNT - 1)];
+    }
+
+    private static int[] generateLegalMoves(ChessBoard board, ChessGame.TeamColor teamColor) {
+        MoveList legalMoves = new MoveList();
+        new LegalMoveGenerator(board, teamColor).addAllLegalMoves(legalMoves);
+        return legalMoves.toArray();
+    }
+
+    // The board is kept to confirm that a lookup found the right position rather than one with the same hash
+    private record CachedMoves(ChessBoard board, int[] moves) {
+    }
+
+    // A LinkedHashMap in access order keeps its least recently used entry first, ready to be evicted
+    private static final class Segment extends LinkedHashMap<Long, CachedMoves> {
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(capacity * 2, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedMoves> eldest) {
+            return size() > capacity;
+        }
+    }
+}
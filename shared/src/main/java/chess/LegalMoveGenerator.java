@@ -0,0 +1,276 @@
+package chess;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Generates the legal moves of one team on a board, meaning the moves that do not leave that team's
+ * King in check.
+ * <p>
+ * Rather than trying every candidate move and then searching for threats to the King, the threats are
+ * found once when the generator is created. The pieces giving check produce a "check mask" of the
+ * squares a non-King move must land on to capture or block the check, and each piece pinned against the
+ * King by an enemy slider gets a "pin mask" of the line it can slide along without exposing the King.
+ * A candidate move is then legal when its destination lies within both masks. King moves are checked
+ * separately, by testing whether the destination is attacked once the King has left its square.
+ * <p>
+ * A generator describes the board as it was when the generator was created, so a new one is needed
+ * after the board changes.
+ */
+public class LegalMoveGenerator {
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor teamColor;
+    private final ChessGame.TeamColor enemyColor;
+    private final int kingSquare; // -1 when the team has no King on the board
+    private final long checkers;
+    private final long checkMask;
+    private final long pinnedPieces;
+
+    public LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor teamColor) {
+        this.board = board;
+        this.teamColor = teamColor;
+        this.enemyColor = (teamColor == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+        kingSquare = board.getKingSquare(teamColor);
+        if (kingSquare < 0) {
+            // Without a King there is nothing to protect, so every movement is legal
+            checkers = 0L;
+            checkMask = -1L;
+            pinnedPieces = 0L;
+            return;
+        }
+        checkers = attackersOf(board, kingSquare, enemyColor, board.getOccupancy());
+
+        // With no check any square will do, a single check must be captured or blocked,
+        // and a double check can only be escaped by moving the King
+        if (checkers == 0) {
+            checkMask = -1L;
+        } else if (Bitboards.countSquares(checkers) == 1) {
+            checkMask = checkers | AttackTables.squaresBetween(kingSquare, Bitboards.lowestSquare(checkers));
+        } else {
+            checkMask = 0L;
+        }
+
+        pinnedPieces = findPinnedPieces();
+    }
+
+    /**
+     * @return the squares of the enemy pieces currently attacking this team's King
+     */
+    public long getCheckers() {
+        return checkers;
+    }
+
+    /**
+     * @return whether this team's King is currently attacked
+     */
+    public boolean isInCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * Determines whether a team's King is attacked, without finding the pins that generating moves needs
+     *
+     * @param board     the board to look at
+     * @param teamColor the team whose King to look at
+     * @return whether the team has a King on the board and it is attacked
+     */
+    public static boolean isInCheck(ChessBoard board, ChessGame.TeamColor teamColor) {
+        int kingSquare = board.getKingSquare(teamColor);
+        ChessGame.TeamColor enemyColor = (teamColor == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return kingSquare >= 0 && attackersOf(board, kingSquare, enemyColor, board.getOccupancy()) != 0;
+    }
+
+    /**
+     * Searches this team's pieces for any legal move, stopping at the first piece that has one
+     *
+     * @return whether this team has at least one legal move
+     */
+    public boolean hasLegalMove() {
+        // The King is tried first, since outside of a double check it usually has somewhere to go
+        if (kingSquare >= 0 && legalTargets(kingSquare) != 0) {
+            return true;
+        }
+        // In a double check only the King can move, so the other pieces need not be tried
+        if (checkMask == 0) {
+            return false;
+        }
+        long teamPieces = board.getTeamOccupancy(teamColor) & ~board.getPieceBitboard(teamColor, ChessPiece.PieceType.KING);
+        while (teamPieces != 0) {
+            if (legalTargets(Bitboards.lowestSquare(teamPieces)) != 0) {
+                return true;
+            }
+            teamPieces = Bitboards.withoutLowestSquare(teamPieces);
+        }
+        return false;
+    }
+
+    /**
+     * Finds the legal destinations for the piece on a square
+     *
+     * @param fromSquare the 0-63 square index of a piece belonging to this team
+     * @return a bitboard of the squares the piece can legally move to
+     */
+    public long legalTargets(int fromSquare) {
+        MoveRules pieceRules = MoveRules.forPiece(Bitboards.pieceType(board.pieceIndexAt(fromSquare)));
+        long pseudoTargets = pieceRules.reachableSquares(board, fromSquare, teamColor) & ~board.getTeamOccupancy(teamColor);
+
+        if (fromSquare == kingSquare) {
+            return kingTargets(pseudoTargets);
+        }
+        long targets = pseudoTargets & checkMask;
+        // A pinned piece may only move along the line joining its King and the piece pinning it
+        if ((pinnedPieces & Bitboards.squareBit(fromSquare)) != 0) {
+            targets &= AttackTables.lineThrough(kingSquare, fromSquare);
+        }
+        return targets;
+    }
+
+    /**
+     * Adds the legal moves of the piece on a square to a move list, in packed form
+     *
+     * @param fromSquare the 0-63 square index of a piece belonging to this team
+     * @param moves      the list to add the moves to
+     */
+    public void addLegalMoves(int fromSquare, MoveList moves) {
+        MoveRules pieceRules = MoveRules.forPiece(Bitboards.pieceType(board.pieceIndexAt(fromSquare)));
+        MoveRules.addMoves(moves, fromSquare, legalTargets(fromSquare), pieceRules.promotesOnFinalRow(), board.getOccupancy());
+    }
+
+    /**
+     * Adds the legal moves of every piece of this team to a move list, in packed form. The checks and
+     * pins found when the generator was created are shared by all of the pieces.
+     *
+     * @param moves the list to add the moves to
+     */
+    public void addAllLegalMoves(MoveList moves) {
+        long teamPieces = board.getTeamOccupancy(teamColor);
+        // In a double check only the King can move, so the other pieces need not be tried
+        if (checkMask == 0) {
+            teamPieces &= board.getPieceBitboard(teamColor, ChessPiece.PieceType.KING);
+        }
+        while (teamPieces != 0) {
+            addLegalMoves(Bitboards.lowestSquare(teamPieces), moves);
+            teamPieces = Bitboards.withoutLowestSquare(teamPieces);
+        }
+    }
+
+    /**
+     * Collects the legal moves for the piece at a position, as ChessMove objects
+     *
+     * @param startPosition the position of a piece belonging to this team
+     * @return a set of every legal move that piece can make
+     */
+    public Collection<ChessMove> legalMoves(ChessPosition startPosition) {
+        MoveList packedMoves = new MoveList(32);
+        addLegalMoves(Bitboards.squareIndex(startPosition), packedMoves);
+        HashSet<ChessMove> legalMoves = new HashSet<>();
+        packedMoves.addChessMovesTo(legalMoves);
+        return legalMoves;
+    }
+
+    /**
+     * Checks whether a single move is legal, without generating any other move. The move must first be
+     * possible for the piece by its own movement rules, with a promotion exactly when a pawn reaches the
+     * final row, and then must not leave the mover's King attacked once it is made.
+     *
+     * @param board      the board to check the move on, which is not changed
+     * @param packedMove the move, as created by PackedMove
+     * @return whether the piece on the move's start square may legally make the move
+     */
+    public static boolean isLegalMove(ChessBoard board, int packedMove) {
+        int fromSquare = PackedMove.fromSquare(packedMove);
+        int toSquare = PackedMove.toSquare(packedMove);
+        int pieceIndex = board.pieceIndexAt(fromSquare);
+        if (pieceIndex < 0) {
+            return false;
+        }
+        ChessGame.TeamColor teamColor = Bitboards.pieceColor(pieceIndex);
+        MoveRules pieceRules = MoveRules.forPiece(Bitboards.pieceType(pieceIndex));
+        long toBit = Bitboards.squareBit(toSquare);
+        if ((pieceRules.reachableSquares(board, fromSquare, teamColor) & ~board.getTeamOccupancy(teamColor) & toBit) == 0) {
+            return false;
+        }
+
+        boolean mustPromote = pieceRules.promotesOnFinalRow() && (toSquare < 8 || toSquare >= 56);
+        if (mustPromote != PackedMove.isPromotion(packedMove)) {
+            return false;
+        }
+        if (mustPromote && (PackedMove.promotionType(packedMove) == ChessPiece.PieceType.KING
+                || PackedMove.promotionType(packedMove) == ChessPiece.PieceType.PAWN)) {
+            return false;
+        }
+
+        int kingSquare = board.getKingSquare(teamColor);
+        if (kingSquare < 0) {
+            return true;
+        }
+        if (kingSquare == fromSquare) {
+            kingSquare = toSquare;
+        }
+        // Look for attackers as if the move were made: the moving piece has left its start square and
+        // stands on its end square, and any piece it captured no longer attacks anything
+        long occupancyAfterMove = (board.getOccupancy() & ~Bitboards.squareBit(fromSquare)) | toBit;
+        ChessGame.TeamColor enemyColor = (teamColor == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return (attackersOf(board, kingSquare, enemyColor, occupancyAfterMove) & ~toBit) == 0;
+    }
+
+    /**
+     * Finds every piece of the attacking team that attacks a square
+     *
+     * @param board         the board to inspect
+     * @param square        the 0-63 square index being attacked
+     * @param attackingTeam the team whose pieces are attacking
+     * @param occupancy     the squares that block sliding pieces, normally the board's full occupancy
+     * @return a bitboard of the attacking pieces
+     */
+    public static long attackersOf(ChessBoard board, int square, ChessGame.TeamColor attackingTeam, long occupancy) {
+        // Attacks are symmetric: a piece on the square attacks exactly the squares from which that kind
+        // of piece could attack it, except for pawns, which attack in the direction they move
+        ChessGame.TeamColor defendingTeam = (attackingTeam == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = board.getPieceBitboard(attackingTeam, ChessPiece.PieceType.QUEEN);
+        long rookLikes = board.getPieceBitboard(attackingTeam, ChessPiece.PieceType.ROOK) | queens;
+        long bishopLikes = board.getPieceBitboard(attackingTeam, ChessPiece.PieceType.BISHOP) | queens;
+        return (AttackTables.knightAttacks(square) & board.getPieceBitboard(attackingTeam, ChessPiece.PieceType.KNIGHT))
+                | (AttackTables.kingAttacks(square) & board.getPieceBitboard(attackingTeam, ChessPiece.PieceType.KING))
+                | (AttackTables.pawnAttacks(defendingTeam, square) & board.getPieceBitboard(attackingTeam, ChessPiece.PieceType.PAWN))
+                | (AttackTables.rookAttacks(square, occupancy) & rookLikes)
+                | (AttackTables.bishopAttacks(square, occupancy) & bishopLikes);
+    }
+
+    // The King may step anywhere not attacked once it has moved. It is removed from the occupancy first
+    // so that a slider checking it along a line also attacks the square directly behind it.
+    private long kingTargets(long pseudoTargets) {
+        long occupancyWithoutKing = board.getOccupancy() & ~Bitboards.squareBit(kingSquare);
+        long targets = 0L;
+        while (pseudoTargets != 0) {
+            int targetSquare = Bitboards.lowestSquare(pseudoTargets);
+            if (attackersOf(board, targetSquare, enemyColor, occupancyWithoutKing) == 0) {
+                targets |= Bitboards.squareBit(targetSquare);
+            }
+            pseudoTargets = Bitboards.withoutLowestSquare(pseudoTargets);
+        }
+        return targets;
+    }
+
+    // An enemy slider that would attack the King on an empty board pins a piece of this team when that
+    // piece is the only one standing between them
+    private long findPinnedPieces() {
+        long enemyQueens = board.getPieceBitboard(enemyColor, ChessPiece.PieceType.QUEEN);
+        long snipers = (AttackTables.rookAttacks(kingSquare, 0L)
+                & (board.getPieceBitboard(enemyColor, ChessPiece.PieceType.ROOK) | enemyQueens))
+                | (AttackTables.bishopAttacks(kingSquare, 0L)
+                & (board.getPieceBitboard(enemyColor, ChessPiece.PieceType.BISHOP) | enemyQueens));
+        long occupancy = board.getOccupancy();
+        long pinned = 0L;
+        while (snipers != 0) {
+            long blockers = AttackTables.squaresBetween(kingSquare, Bitboards.lowestSquare(snipers)) & occupancy;
+            if (Bitboards.countSquares(blockers) == 1) {
+                pinned |= blockers & board.getTeamOccupancy(teamColor);
+            }
+            snipers = Bitboards.withoutLowestSquare(snipers);
+        }
+        return pinned;
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A growable list of packed moves backed by a primitive int array. Move generation appends to a
+ * MoveList supplied by the caller, which can clear and refill it for each position without creating
+ * any objects once it has grown large enough.
+ */
+public class MoveList {
+
+    // No legal chess position has more than 218 moves, so this size rarely needs to grow
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int initialCapacity) {
+        moves = new int[Math.max(initialCapacity, 1)];
+        size = 0;
+    }
+
+    public void add(int packedMove) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = packedMove;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for MoveList of size " + size);
+        }
+        return moves[index];
+    }
+
+    public void set(int index, int packedMove) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for MoveList of size " + size);
+        }
+        moves[index] = packedMove;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Shortens the list to the given size, discarding the moves added after that point
+     */
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            size = Math.max(newSize, 0);
+        }
+    }
+
+    /**
+     * @return whether the list holds a move with the same movement as the given packed move, ignoring flags
+     */
+    public boolean containsMovement(int packedMove) {
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.sameMovement(moves[i], packedMove)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts every move in the list to a ChessMove and adds it to the collection
+     */
+    public void addChessMovesTo(Collection<ChessMove> chessMoves) {
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(PackedMove.toChessMove(moves[i]));
+        }
+    }
+
+    /**
+     * @return a new array holding exactly the moves in the list, in order
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder listString = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                listString.append(", ");
+            }
+            listString.append(PackedMove.toString(moves[i]));
+        }
+        return listString.append(']').toString();
+    }
+}
@@ -1,95 +1,102 @@
 package chess;
 
-import java.util.HashSet;
-
 /**
  * The abstract class MoveRules contains the mechanisms that search the board to determine, among
  * all the ways a piece can hypothetically move, which locations it is actually capable of moving to.
- * Its extended classes define all the ways a piece could hypothetically move.
+ * Its extended classes define all the ways a piece could hypothetically move, as bitboards of
+ * destination squares looked up from the precomputed AttackTables.
+ * <p>
+ * Rules hold no state of their own: the color of the moving piece is read from the board and the
+ * generated moves are written into a MoveList supplied by the caller. There is a single shared
+ * instance of the rules for each piece type, obtained through forPiece(), which any number of
+ * threads may use at once.
  */
 public abstract class MoveRules {
 
-    private final boolean unlimitedDistance; // True when a piece can move infinitely many times in a direction
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN,
+                                                                                             ChessPiece.PieceType.BISHOP,
+                                                                                             ChessPiece.PieceType.KNIGHT,
+                                                                                             ChessPiece.PieceType.ROOK};
 
-    protected final ChessGame.TeamColor myColor;
+    // Indexed by PieceType ordinal
+    private static final MoveRules[] RULES_BY_TYPE = new MoveRules[ChessPiece.PieceType.values().length];
 
-    public MoveRules(boolean unlimitedDistance, ChessGame.TeamColor pieceColor) {
-        this.unlimitedDistance = unlimitedDistance;
-        this.myColor = pieceColor;
+    static {
+        for (ChessPiece.PieceType pieceType : ChessPiece.PieceType.values()) {
+            RULES_BY_TYPE[pieceType.ordinal()] = switch (pieceType) {
+                case QUEEN -> new QueenRules();
+                case ROOK -> new RookRules();
+                case BISHOP -> new BishopRules();
+                case KING -> new KingRules();
+                case PAWN -> new PawnRules();
+                case KNIGHT -> new KnightRules();
+            };
+        }
     }
 
-    private final HashSet<ChessMove> validMoveSet = new HashSet<>();
+    /**
+     * @return the shared rules object that knows how a piece of the given type moves
+     */
+    public static MoveRules forPiece(ChessPiece.PieceType pieceType) {
+        return RULES_BY_TYPE[pieceType.ordinal()];
+    }
 
     /**
-     * Analyzes the board state to evaluate the set of hypothetical first-degree moves that could be made,
-     * taking into account board states that make new moves possible (i.e. own color, a pawn that
-     * can capture, a king in position to perform a castle), but ignoring any obstacles to moves
-     * (i.e. would put the piece off the board, would collide with friendly pieces)
+     * Analyzes the board state to evaluate the set of squares a piece could move to, taking into
+     * account board states that make new moves possible or impossible (i.e. a pawn that can capture,
+     * a slider whose path is blocked), but ignoring whether the destination holds a friendly piece.
      *
      * @param board      in its current state
-     * @param myPosition where this piece is located
-     * @return a HashSet of 2-deep integer arrays encoding potential directions this piece could move
+     * @param fromSquare the 0-63 square index where the piece is located
+     * @param pieceColor the team the piece belongs to
+     * @return a bitboard of the squares the piece could move to if they are not held by its own team
      */
-    // A hash set of int arrays of format [row, col] where each [row, col] pair indicates a potential move direction of a piece
-    protected abstract HashSet<int[]> potentialMovements(ChessBoard board, ChessPosition myPosition);
+    protected abstract long reachableSquares(ChessBoard board, int fromSquare, ChessGame.TeamColor pieceColor);
 
-    public HashSet<ChessMove> getMoves(ChessBoard board, ChessPosition myPosition) {
-        for (int[] potentialMovement : potentialMovements(board, myPosition)) {
-            ChessPosition targetPosition = myPosition.getMovedPosition(potentialMovement[0], potentialMovement[1]);
-            if (!targetPosition.isOnBoard()) {
-                continue;
-            }
-            // Check if the location the piece wants to move to can be moved into
-            while (isValidMove(board, targetPosition)) {
-                // If the piece is a pawn and moving into the uppermost or lowermost row, it must be promoted
-                if (board.getPiece(myPosition).getPieceType() == ChessPiece.PieceType.PAWN
-                        && (targetPosition.getRow() == 1
-                        || targetPosition.getRow() == 8)) {
-                    ChessPiece.PieceType[] allPieces = new ChessPiece.PieceType[]{ChessPiece.PieceType.QUEEN,
-                                                                                  ChessPiece.PieceType.BISHOP,
-                                                                                  ChessPiece.PieceType.KNIGHT,
-                                                                                  ChessPiece.PieceType.ROOK};
-                    for (ChessPiece.PieceType promotionCandidate : allPieces) {
-                        validMoveSet.add(new ChessMove(myPosition, targetPosition, promotionCandidate));
-                    }
-                } else {
-                    validMoveSet.add(new ChessMove(myPosition, targetPosition, null));
-                }
-                // If the piece can continue moving in a direction, try to recurse
-                if (!unlimitedDistance) {
-                    break;
-                }
-                // If the targetPosition is an empty position, continue adding moves. Otherwise,
-                // it must be taking an enemy piece and forced to stop, and should not recurse.
-                if (board.getPiece(targetPosition) == null) {
-                    targetPosition = targetPosition.getMovedPosition(potentialMovement[0], potentialMovement[1]);
-                } else {
-                    break;
-                }
-            }
+    /**
+     * @return whether the piece must be promoted when it reaches the uppermost or lowermost row
+     */
+    protected boolean promotesOnFinalRow() {
+        return false;
+    }
 
-        }
-        return validMoveSet;
+    /**
+     * Adds every move the piece on a square can make to a move list, in packed form. Moves that would
+     * leave the piece's King in check are included.
+     *
+     * @param board      in its current state
+     * @param fromSquare the 0-63 square index of the piece, which must be of the type these rules describe
+     * @param moves      the list to add the moves to
+     */
+    public void addMoves(ChessBoard board, int fromSquare, MoveList moves) {
+        ChessGame.TeamColor pieceColor = Bitboards.pieceColor(board.pieceIndexAt(fromSquare));
+        // The piece can move into any reachable square that is empty or holds an enemy piece
+        long targetSquares = reachableSquares(board, fromSquare, pieceColor) & ~board.getTeamOccupancy(pieceColor);
+        addMoves(moves, fromSquare, targetSquares, promotesOnFinalRow(), board.getOccupancy());
     }
 
     /**
-     * For a piece in myPosition trying to move to targetPosition, determine whether such a move would be valid
+     * Adds a packed move to the list for each target square, expanding a pawn's move into the
+     * uppermost or lowermost row into one move per promotion option.
      *
-     * @param board          in its current state
-     * @param targetPosition where this piece wants to move
-     * @return a boolean indicating whether this is a valid move option
+     * @param moves         the list to add the moves to
+     * @param fromSquare    the 0-63 square index where the moving piece is located
+     * @param targetSquares a bitboard of the squares the piece can move to
+     * @param isPawn        whether the moving piece is a pawn, and so must be promoted on the final row
+     * @param occupancy     every occupied square on the board, used to flag captures
      */
-    private boolean isValidMove(ChessBoard board, ChessPosition targetPosition) {
-        // If the piece wants to move off the board, return false
-        if (!targetPosition.isOnBoard()) {
-            return false;
-        }
-        // If the piece wants to move into an empty space, return true
-        if (board.getPiece(targetPosition) == null) {
-            return true;
+    static void addMoves(MoveList moves, int fromSquare, long targetSquares, boolean isPawn, long occupancy) {
+        while (targetSquares != 0) {
+            int toSquare = Bitboards.lowestSquare(targetSquares);
+            boolean isCapture = (occupancy & Bitboards.squareBit(toSquare)) != 0;
+            if (isPawn && (toSquare < 8 || toSquare >= 56)) {
+                for (ChessPiece.PieceType promotionCandidate : PROMOTION_TYPES) {
+                    moves.add(PackedMove.of(fromSquare, toSquare, promotionCandidate, isCapture));
+                }
+            } else {
+                moves.add(PackedMove.of(fromSquare, toSquare, null, isCapture));
+            }
+            targetSquares = Bitboards.withoutLowestSquare(targetSquares);
         }
-        ChessGame.TeamColor targetColor = board.getPiece(targetPosition).getTeamColor();
-        // If the piece wants to move into the space of a piece of a different color, return true
-        return myColor != targetColor;
     }
 }
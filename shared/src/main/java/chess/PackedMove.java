@@ -0,0 +1,91 @@
+package chess;
+
+/**
+ * Static helpers for moves packed into a single int, used by move generation so that no objects are
+ * created per move. ChessMove objects are only built from packed moves at the public API boundary.
+ * <p>
+ * Layout, from the lowest bit:
+ * <ul>
+ *     <li>bits 0-5: the 0-63 square index the piece moves from</li>
+ *     <li>bits 6-11: the 0-63 square index the piece moves to</li>
+ *     <li>bits 12-14: the PieceType ordinal plus one of the promotion piece, or 0 for no promotion</li>
+ *     <li>bit 15: set when the move captures a piece</li>
+ * </ul>
+ * A packed move is never 0 for a real move, since a move's start and end squares always differ.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0;
+    public static final int CAPTURE_FLAG = 1 << 15;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    /**
+     * @param promotionType the type of piece a pawn is promoted to, or null if this is not a promotion
+     * @return the packed form of a move
+     */
+    public static int of(int fromSquare, int toSquare, ChessPiece.PieceType promotionType, boolean isCapture) {
+        int promotionCode = (promotionType == null) ? 0 : promotionType.ordinal() + 1;
+        return fromSquare | (toSquare << 6) | (promotionCode << 12) | (isCapture ? CAPTURE_FLAG : 0);
+    }
+
+    /**
+     * Packs a ChessMove. A ChessMove does not know whether it captures, so the capture flag is left clear.
+     */
+    public static int fromChessMove(ChessMove move) {
+        return of(Bitboards.squareIndex(move.getStartPosition()), Bitboards.squareIndex(move.getEndPosition()),
+                  move.getPromotionPiece(), false);
+    }
+
+    public static ChessMove toChessMove(int packedMove) {
+        return new ChessMove(Bitboards.positionOf(fromSquare(packedMove)), Bitboards.positionOf(toSquare(packedMove)),
+                             promotionType(packedMove));
+    }
+
+    public static int fromSquare(int packedMove) {
+        return packedMove & 0x3F;
+    }
+
+    public static int toSquare(int packedMove) {
+        return (packedMove >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the type of piece a pawn is promoted to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotionType(int packedMove) {
+        int promotionCode = (packedMove >>> 12) & 0x7;
+        return (promotionCode == 0) ? null : PIECE_TYPES[promotionCode - 1];
+    }
+
+    public static boolean isPromotion(int packedMove) {
+        return (packedMove & 0x7000) != 0;
+    }
+
+    public static boolean isCapture(int packedMove) {
+        return (packedMove & CAPTURE_FLAG) != 0;
+    }
+
+    /**
+     * @return whether two packed moves describe the same movement, ignoring their flags
+     */
+    public static boolean sameMovement(int firstMove, int secondMove) {
+        return (firstMove & 0x7FFF) == (secondMove & 0x7FFF);
+    }
+
+    /**
+     * @return the move in coordinate notation, such as "e2e4" or "a7a8q", mainly for debugging
+     */
+    public static String toString(int packedMove) {
+        String moveString = Bitboards.positionOf(fromSquare(packedMove)).getFileRank()
+                + Bitboards.positionOf(toSquare(packedMove)).getFileRank();
+        ChessPiece.PieceType promotionType = promotionType(packedMove);
+        if (promotionType != null) {
+            moveString += Character.toLowerCase(ChessPiece.of(ChessGame.TeamColor.BLACK, promotionType).toChar());
+        }
+        return moveString;
+    }
+}
@@ -0,0 +1,264 @@
+package chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft ("performance test") counts the leaf nodes of the full game tree below a position to a fixed
+ * depth. Published node counts for standard positions make it a check of the move generator's
+ * correctness: a single missing or extra move anywhere in the tree changes the count. Timing the count
+ * also gives a throughput figure to compare before and after changes to the move generator.
+ * <p>
+ * The tree is walked through the public ChessGame API, asking allLegalMoves() for the moves of the team
+ * to move and playing each one with makeMove() on a copy of the game, so the numbers reflect what
+ * callers of ChessGame actually see. The moves are generated directly rather than through the shared
+ * legal move cache, since the positions of a perft tree are almost never asked about again.
+ * <p>
+ * The count can also be split across threads with countNodesParallel(). Each move at the top of the
+ * tree becomes a fork/join task that works on its own copy of the game, and the subtrees are divided
+ * further until they are small enough to count on one thread.
+ * <p>
+ * Running this class runs the bundled standard positions, printing node counts and nodes per second,
+ * and exits with a failure status if any count is wrong. The deepest depth of each position is then
+ * counted again in parallel for comparison. An optional argument limits the depth searched.
+ */
+public final class Perft {
+
+    private static final String STANDARD_POSITIONS_RESOURCE = "/perft/standard-positions.epd";
+    // Subtrees this shallow hold too few nodes to be worth handing to another thread
+    private static final int SEQUENTIAL_DEPTH = 2;
+
+    /**
+     * A position and its known leaf node counts
+     *
+     * @param fen           the position, in Forsyth-Edwards Notation
+     * @param expectedNodes the known node count at each depth, starting from depth 1
+     */
+    public record PerftPosition(String fen, List<Long> expectedNodes) {
+
+        /**
+         * @return the deepest depth with a known node count
+         */
+        public int maxDepth() {
+            return expectedNodes.size();
+        }
+
+        /**
+         * @return the known node count at a depth from 1 to maxDepth()
+         */
+        public long expectedNodes(int depth) {
+            return expectedNodes.get(depth - 1);
+        }
+    }
+
+    /**
+     * The outcome of one perft count
+     *
+     * @param nodes        the number of leaf nodes found
+     * @param elapsedNanos how long the count took
+     */
+    public record PerftResult(long nodes, long elapsedNanos) {
+
+        /**
+         * @return the leaf nodes counted per second of elapsed time
+         */
+        public long nodesPerSecond() {
+            return (elapsedNanos == 0) ? 0 : (long) (nodes * 1_000_000_000.0 / elapsedNanos);
+        }
+    }
+
+    private Perft() {
+    }
+
+    public static void main(String[] args) {
+        int depthLimit = (args.length > 0) ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        int mismatches = 0;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (PerftPosition position : loadStandardPositions()) {
+            System.out.println(position.fen());
+            int deepestDepth = Math.min(depthLimit, position.maxDepth());
+            for (int depth = 1; depth <= deepestDepth; depth++) {
+                PerftResult result = run(ChessGame.fromFen(position.fen()), depth);
+                boolean matches = result.nodes() == position.expectedNodes(depth);
+                System.out.printf("  depth %d: %,d nodes in %,d ms (%,d nodes/s)%s%n",
+                                  depth, result.nodes(), result.elapsedNanos() / 1_000_000, result.nodesPerSecond(),
+                                  matches ? "" : "  MISMATCH, expected " + position.expectedNodes(depth));
+                if (!matches) {
+                    mismatches++;
+                }
+                totalNodes += result.nodes();
+                totalNanos += result.elapsedNanos();
+            }
+            PerftResult parallelResult = runParallel(ChessGame.fromFen(position.fen()), deepestDepth, ForkJoinPool.commonPool());
+            boolean parallelMatches = parallelResult.nodes() == position.expectedNodes(deepestDepth);
+            System.out.printf("  depth %d in parallel: %,d nodes in %,d ms (%,d nodes/s)%s%n",
+                              deepestDepth, parallelResult.nodes(), parallelResult.elapsedNanos() / 1_000_000,
+                              parallelResult.nodesPerSecond(), parallelMatches ? "" : "  MISMATCH");
+            if (!parallelMatches) {
+                mismatches++;
+            }
+        }
+        System.out.printf("Total: %,d nodes (%,d nodes/s)%n", totalNodes, new PerftResult(totalNodes, totalNanos).nodesPerSecond());
+        if (mismatches > 0) {
+            System.out.println(mismatches + " node counts did not match");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Counts the leaf nodes below a game's position and times the count
+     *
+     * @param game  the game whose position to start from, which is left unchanged
+     * @param depth how many moves deep to search
+     * @return the node count and the time it took
+     */
+    public static PerftResult run(ChessGame game, int depth) {
+        long startTime = System.nanoTime();
+        long nodes = countNodes(game, depth);
+        return new PerftResult(nodes, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Counts the leaf nodes of the game tree below a game's position
+     *
+     * @param game  the game whose position to start from, which is left unchanged
+     * @param depth how many moves deep to search
+     * @return the number of distinct move sequences of exactly that length
+     */
+    public static long countNodes(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = new MoveList();
+        int moveCount = game.allLegalMoves(game.getTeamTurn(), moves);
+        if (depth == 1) {
+            // The moves themselves are the leaves, so there is no need to play them
+            return moveCount;
+        }
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            nodes += countNodes(playOnCopy(game, moves.get(i)), depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below a game's position on the threads of a fork/join pool, and times the count
+     *
+     * @param game  the game whose position to start from, which is left unchanged
+     * @param depth how many moves deep to search
+     * @param pool  the pool whose threads share the count
+     * @return the node count and the time it took
+     */
+    public static PerftResult runParallel(ChessGame game, int depth, ForkJoinPool pool) {
+        long startTime = System.nanoTime();
+        long nodes = countNodesParallel(game, depth, pool);
+        return new PerftResult(nodes, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Counts the leaf nodes of the game tree below a game's position, as countNodes() does, dividing
+     * the tree among the threads of a fork/join pool
+     *
+     * @param game  the game whose position to start from, which is left unchanged
+     * @param depth how many moves deep to search
+     * @param pool  the pool whose threads share the count
+     * @return the number of distinct move sequences of exactly that length
+     */
+    public static long countNodesParallel(ChessGame game, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(game.deepCopy(), depth));
+    }
+
+    /**
+     * Counts one subtree. Near the top of the tree a task forks one subtask per move, each with its own
+     * copy of the game, so no task ever touches a game another task can see.
+     */
+    private static final class PerftTask extends RecursiveTask<Long> {
+
+        private final ChessGame game;
+        private final int depth;
+
+        private PerftTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH) {
+                return countNodes(game, depth);
+            }
+            List<PerftTask> subtasks = new ArrayList<>();
+            MoveList moves = new MoveList();
+            int moveCount = game.allLegalMoves(game.getTeamTurn(), moves);
+            for (int i = 0; i < moveCount; i++) {
+                subtasks.add(new PerftTask(playOnCopy(game, moves.get(i)), depth - 1));
+            }
+            long nodes = 0;
+            for (PerftTask subtask : invokeAll(subtasks)) {
+                nodes += subtask.join();
+            }
+            return nodes;
+        }
+    }
+
+    // Makes a packed move returned by allLegalMoves() on a copy of the game, leaving the original untouched
+    private static ChessGame playOnCopy(ChessGame game, int packedMove) {
+        ChessMove move = PackedMove.toChessMove(packedMove);
+        ChessGame childGame = game.deepCopy();
+        try {
+            childGame.makeMove(move);
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("makeMove() rejected the move " + move + " returned by allLegalMoves()", e);
+        }
+        return childGame;
+    }
+
+    /**
+     * Reads the standard positions bundled with this class
+     *
+     * @return every bundled position, with its known node counts
+     */
+    public static List<PerftPosition> loadStandardPositions() {
+        InputStream resourceStream = Perft.class.getResourceAsStream(STANDARD_POSITIONS_RESOURCE);
+        if (resourceStream == null) {
+            throw new IllegalStateException("The perft positions resource " + STANDARD_POSITIONS_RESOURCE + " could not be found.");
+        }
+        List<PerftPosition> positions = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resourceStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    positions.add(parsePosition(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return positions;
+    }
+
+    // Parses a line of the form "<FEN> ;D1 <nodes> ;D2 <nodes> ...", where the depths count up from 1
+    private static PerftPosition parsePosition(String line) {
+        String[] fields = line.split(";");
+        List<Long> expectedNodes = new ArrayList<>();
+        for (int i = 1; i < fields.length; i++) {
+            String[] depthAndNodes = fields[i].strip().split("\\s+");
+            if (depthAndNodes.length != 2 || !depthAndNodes[0].equals("D" + i)) {
+                throw new IllegalArgumentException("Perft position line has a malformed node count '" + fields[i] + "': " + line);
+            }
+            expectedNodes.add(Long.parseLong(depthAndNodes[1]));
+        }
+        return new PerftPosition(fields[0].strip(), List.copyOf(expectedNodes));
+    }
+}
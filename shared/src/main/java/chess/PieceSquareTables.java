@@ -0,0 +1,174 @@
+package chess;
+
+/**
+ * Piece values and piece-square tables for scoring a position, with separate middlegame and endgame
+ * values that are blended by how much material is left (a "tapered" evaluation).
+ * <p>
+ * Every (piece, square) pair has a middlegame and an endgame score: the piece's material value plus a
+ * bonus or penalty for standing on that square, such as Knights being stronger in the center and the
+ * King being safer behind its pawns in the middlegame but needing to be central in the endgame. Scores
+ * are in centipawns from White's point of view, so Black's pieces score negatively. A position's score is
+ * the sum over its pieces, so like the Zobrist hash it can be kept up to date incrementally by adding a
+ * piece's score when it is placed and subtracting it when it is removed.
+ * <p>
+ * The game phase is counted the same way, from the pieces other than Kings and pawns. It starts at
+ * MAX_PHASE and falls towards 0 as pieces are traded, moving the blend from the middlegame scores to the
+ * endgame scores.
+ */
+public final class PieceSquareTables {
+
+    public static final int MAX_PHASE = 24;
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] MIDDLEGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+
+    // The tables below are laid out as the board is seen from White's side, with row 8 first, and are
+    // mirrored for Black
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] PAWN_MIDDLEGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    // In the endgame a pawn is worth more the nearer it is to promoting, wherever it stands on its row
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            20, 20, 20, 20, 20, 20, 20, 20,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    // Indexed by Bitboards.pieceIndex * 64 + square, with material included and Black's scores negated
+    private static final int[] MIDDLEGAME_SCORES = new int[12 * 64];
+    private static final int[] ENDGAME_SCORES = new int[12 * 64];
+
+    static {
+        int[][] middlegameTables = {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME};
+        int[][] endgameTables = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+        for (int pieceIndex = 0; pieceIndex < 12; pieceIndex++) {
+            int typeOrdinal = pieceIndex % 6;
+            boolean isWhite = pieceIndex < 6;
+            for (int square = 0; square < 64; square++) {
+                // Square 0 is a1, but the tables start from a8, so White's squares are flipped top to bottom.
+                // Black's pieces see the board the other way up, so their squares are already in table order.
+                int tableIndex = isWhite ? (square ^ 56) : square;
+                int middlegameScore = MIDDLEGAME_VALUES[typeOrdinal] + middlegameTables[typeOrdinal][tableIndex];
+                int endgameScore = ENDGAME_VALUES[typeOrdinal] + endgameTables[typeOrdinal][tableIndex];
+                MIDDLEGAME_SCORES[pieceIndex * 64 + square] = isWhite ? middlegameScore : -middlegameScore;
+                ENDGAME_SCORES[pieceIndex * 64 + square] = isWhite ? endgameScore : -endgameScore;
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * @param pieceIndex the piece bitboard index, as given by Bitboards.pieceIndex
+     * @param square     the 0-63 square index
+     * @return the middlegame score added to a position while that piece stands on that square
+     */
+    public static int middlegameScore(int pieceIndex, int square) {
+        return MIDDLEGAME_SCORES[pieceIndex * 64 + square];
+    }
+
+    /**
+     * @param pieceIndex the piece bitboard index, as given by Bitboards.pieceIndex
+     * @param square     the 0-63 square index
+     * @return the endgame score added to a position while that piece stands on that square
+     */
+    public static int endgameScore(int pieceIndex, int square) {
+        return ENDGAME_SCORES[pieceIndex * 64 + square];
+    }
+
+    /**
+     * @param pieceIndex the piece bitboard index, as given by Bitboards.pieceIndex
+     * @return how much the piece adds to the game phase, the same for either team
+     */
+    public static int phaseWeight(int pieceIndex) {
+        return PHASE_WEIGHTS[pieceIndex % 6];
+    }
+
+    /**
+     * Blends a middlegame and an endgame score by the game phase
+     *
+     * @param middlegameScore the score to use with all of the starting pieces on the board
+     * @param endgameScore    the score to use with only Kings and pawns left
+     * @param gamePhase       the game phase, which may pass MAX_PHASE after promotions
+     * @return the blended score
+     */
+    public static int taper(int middlegameScore, int endgameScore, int gamePhase) {
+        int middlegameWeight = Math.min(gamePhase, MAX_PHASE);
+        return (middlegameScore * middlegameWeight + endgameScore * (MAX_PHASE - middlegameWeight)) / MAX_PHASE;
+    }
+}
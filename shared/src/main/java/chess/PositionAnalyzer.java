@@ -0,0 +1,108 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Analyzes many game positions at once, spreading the work across the threads of a fork/join pool.
+ * <p>
+ * Each position is analyzed on its own copy of the game, and the move generation it relies on only
+ * reads shared tables that never change after they are built, so no state is shared between threads.
+ * The games passed in are only read, but they must not be changed by other threads during the analysis.
+ */
+public final class PositionAnalyzer {
+
+    // Ranges of positions this small are analyzed on one thread rather than split further
+    private static final int SEQUENTIAL_BATCH_SIZE = 64;
+
+    /**
+     * What the analysis found about one position
+     *
+     * @param teamToMove     the team whose turn it is
+     * @param legalMoveCount how many legal moves that team has
+     * @param status         whether that team is in check, checkmate or stalemate, or the game is drawn
+     */
+    public record PositionAnalysis(ChessGame.TeamColor teamToMove, int legalMoveCount, ChessGame.GameStatus status) {
+    }
+
+    private PositionAnalyzer() {
+    }
+
+    /**
+     * Analyzes a single position for the team whose turn it is
+     *
+     * @param game the game whose position to analyze, which is left unchanged
+     * @return the legal move count and status of the team to move
+     */
+    public static PositionAnalysis analyze(ChessGame game) {
+        // The copy keeps the lazily built repetition history of the game passed in from being written to
+        ChessGame gameCopy = game.deepCopy();
+        ChessGame.TeamColor teamToMove = gameCopy.getTeamTurn();
+        // One generator gives both the moves and the check, so the status never goes through the shared
+        // legal move cache and its locks
+        LegalMoveGenerator moveGenerator = new LegalMoveGenerator(gameCopy.boardView(), teamToMove);
+        MoveList legalMoves = new MoveList();
+        moveGenerator.addAllLegalMoves(legalMoves);
+        int legalMoveCount = legalMoves.size();
+        return new PositionAnalysis(teamToMove, legalMoveCount, gameCopy.evaluateStatus(legalMoveCount, moveGenerator.isInCheck()));
+    }
+
+    /**
+     * Analyzes every position on the threads of the common fork/join pool
+     *
+     * @param games the games whose positions to analyze, which are left unchanged
+     * @return the analysis of each game, in the same order as the games
+     */
+    public static List<PositionAnalysis> analyzeAll(List<ChessGame> games) {
+        return analyzeAll(games, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Analyzes every position on the threads of the given fork/join pool
+     *
+     * @param games the games whose positions to analyze, which are left unchanged
+     * @param pool  the pool whose threads share the work
+     * @return the analysis of each game, in the same order as the games
+     */
+    public static List<PositionAnalysis> analyzeAll(List<ChessGame> games, ForkJoinPool pool) {
+        ChessGame[] gameArray = games.toArray(new ChessGame[0]);
+        PositionAnalysis[] analyses = new PositionAnalysis[gameArray.length];
+        pool.invoke(new AnalysisTask(gameArray, analyses, 0, gameArray.length));
+        return Arrays.asList(analyses);
+    }
+
+    /**
+     * Analyzes a range of the games, splitting it in half until the halves are small enough that
+     * dividing them further would cost more than it saves. Each task writes only its own range of
+     * the results array.
+     */
+    private static final class AnalysisTask extends RecursiveAction {
+
+        private final ChessGame[] games;
+        private final PositionAnalysis[] analyses;
+        private final int startIndex;
+        private final int endIndex;
+
+        private AnalysisTask(ChessGame[] games, PositionAnalysis[] analyses, int startIndex, int endIndex) {
+            this.games = games;
+            this.analyses = analyses;
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (endIndex - startIndex <= SEQUENTIAL_BATCH_SIZE) {
+                for (int i = startIndex; i < endIndex; i++) {
+                    analyses[i] = analyze(games[i]);
+                }
+                return;
+            }
+            int middleIndex = (startIndex + endIndex) >>> 1;
+            invokeAll(new AnalysisTask(games, analyses, startIndex, middleIndex),
+                      new AnalysisTask(games, analyses, middleIndex, endIndex));
+        }
+    }
+}
@@ -1,20 +1,15 @@
 package chess;
 
-import java.util.HashSet;
-
 public class RookRules extends MoveRules {
 
-    public RookRules(ChessGame.TeamColor pieceColor) {
-        // Tells the parent abstract class whether the piece can move infinitely (recursively) after it starts moving
-        super(true, pieceColor);
+    // The row and column directions a rook slides in
+    static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    RookRules() {
     }
 
-    protected HashSet<int[]> potentialMovements(ChessBoard board, ChessPosition myPosition) {
-        HashSet<int[]> rookMoves = new HashSet<>(8);
-        rookMoves.add(new int[]{-1, 0});
-        rookMoves.add(new int[]{0, -1});
-        rookMoves.add(new int[]{0, 1});
-        rookMoves.add(new int[]{1, 0});
-        return rookMoves;
+    // The rook slides until it leaves the board or reaches the first piece in its path, which it may capture
+    protected long reachableSquares(ChessBoard board, int fromSquare, ChessGame.TeamColor pieceColor) {
+        return AttackTables.rookAttacks(fromSquare, board.getOccupancy());
     }
 }
@@ -0,0 +1,60 @@
+package chess;
+
+/**
+ * Random keys used to build a 64-bit Zobrist hash of a chess position.
+ * <p>
+ * Every (piece, square) pair and the black side to move get their own random key. A position's hash
+ * is the XOR of the keys of everything present in it. Because XOR is its own inverse, the hash can be
+ * kept up to date incrementally: placing or removing a piece XORs its key in or out, and passing the
+ * turn XORs the side to move key. The keys come from a fixed seed, so hashes are stable across runs
+ * and machines and can be stored alongside games.
+ */
+public final class Zobrist {
+
+    // Indexed by Bitboards.pieceIndex, then by square
+    private static final long[][] PIECE_SQUARE_KEYS = new long[12][64];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        long randomState = 0x9E3779B97F4A7C15L;
+        for (int pieceIndex = 0; pieceIndex < 12; pieceIndex++) {
+            for (int square = 0; square < 64; square++) {
+                randomState = nextRandom(randomState);
+                PIECE_SQUARE_KEYS[pieceIndex][square] = scramble(randomState);
+            }
+        }
+        randomState = nextRandom(randomState);
+        BLACK_TO_MOVE_KEY = scramble(randomState);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex the piece bitboard index, as given by Bitboards.pieceIndex
+     * @param square     the 0-63 square index
+     * @return the key XORed into a position's hash while that piece stands on that square
+     */
+    public static long pieceSquareKey(int pieceIndex, int square) {
+        return PIECE_SQUARE_KEYS[pieceIndex][square];
+    }
+
+    /**
+     * @return the key XORed into a position's hash when the given team is the one to move
+     */
+    public static long sideToMoveKey(ChessGame.TeamColor teamToMove) {
+        return (teamToMove == ChessGame.TeamColor.BLACK) ? BLACK_TO_MOVE_KEY : 0L;
+    }
+
+    // The xorshift64* generator also used by AttackTables, split into its state update and its output step
+    private static long nextRandom(long state) {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state;
+    }
+
+    private static long scramble(long state) {
+        return state * 0x2545F4914F6CDD1DL;
+    }
+}
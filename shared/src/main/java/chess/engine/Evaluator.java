@@ -0,0 +1,44 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * Scores a position for the search, without looking any moves ahead.
+ * <p>
+ * An evaluator that keeps state of its own as moves are made, such as NnueEvaluator, is told of every
+ * move the search makes and takes back on its board. Evaluators that read everything they need from the
+ * board can ignore those calls.
+ */
+public interface Evaluator {
+
+    /**
+     * @param board      the position to score
+     * @param sideToMove the team whose turn it is
+     * @return the score in centipawns from the point of view of the team to move, positive when it is ahead
+     */
+    int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove);
+
+    /**
+     * Called when a search starts from a board, before any moves are made on it
+     *
+     * @param board the board the search will make its moves on
+     */
+    default void startSearch(ChessBoard board) {
+    }
+
+    /**
+     * Called just before the search makes a move on its board
+     *
+     * @param board      the board, not yet changed by the move
+     * @param packedMove the move about to be made
+     */
+    default void makeMove(ChessBoard board, int packedMove) {
+    }
+
+    /**
+     * Called just after the search takes back the most recent move made on its board
+     */
+    default void unmakeMove() {
+    }
+}
@@ -0,0 +1,177 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Searches one position on several threads at once, by the "Lazy SMP" scheme.
+ * <p>
+ * Every thread runs an ordinary SearchEngine search of the same position, and the threads share nothing
+ * but a transposition table. They still help each other: each thread stores what it finds in the table,
+ * where the others pick it up as cutoffs and best moves, so together they search deeper in the same time.
+ * Half of the helper threads start their iterative deepening one move deeper than the main thread, so
+ * that the threads spread out over different depths rather than all searching the same tree in step.
+ * <p>
+ * The calling thread is the main thread. When it finishes, or fails, the helpers are stopped and waited
+ * for, and the result of whichever thread finished the deepest iteration is returned, preferring the main
+ * thread's on a tie. A search keeps one engine per thread between searches, so like SearchEngine it must
+ * not be used by two callers at once.
+ * <p>
+ * The helpers run on threads the search owns and reuses from one search to the next, so that many bot
+ * games can each keep a search without starting new threads for every move. The threads are released by
+ * close(), after which the search cannot be used.
+ */
+public final class LazySmpSearch implements AutoCloseable {
+
+    // Numbers the helper threads of every search, so that thread dumps can tell them apart
+    private static final AtomicInteger HELPER_THREAD_COUNT = new AtomicInteger();
+
+    private final TranspositionTable transpositionTable;
+    private final SearchEngine[] engines;
+    // Holds a thread for each helper engine, started when first needed
+    private final ExecutorService helperExecutor;
+
+    /**
+     * Creates a search whose threads score positions by material and piece placement
+     *
+     * @param threadCount        how many threads to search with, including the calling thread
+     * @param transpositionTable the table the threads share
+     */
+    public LazySmpSearch(int threadCount, TranspositionTable transpositionTable) {
+        this(threadCount, transpositionTable, PieceSquareEvaluator::new);
+    }
+
+    /**
+     * @param threadCount        how many threads to search with, including the calling thread
+     * @param transpositionTable the table the threads share
+     * @param evaluatorFactory   makes the evaluator of each thread, so evaluators need not be thread-safe
+     */
+    public LazySmpSearch(int threadCount, TranspositionTable transpositionTable, Supplier<? extends Evaluator> evaluatorFactory) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread: " + threadCount);
+        }
+        this.transpositionTable = transpositionTable;
+        this.engines = new SearchEngine[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            engines[i] = new SearchEngine(evaluatorFactory.get(), transpositionTable);
+        }
+        // Daemon threads, so that a search left unclosed does not keep the program running
+        this.helperExecutor = Executors.newFixedThreadPool(Math.max(1, threadCount - 1), runnable -> {
+            Thread helperThread = new Thread(runnable, "lazy-smp-helper-" + HELPER_THREAD_COUNT.incrementAndGet());
+            helperThread.setDaemon(true);
+            return helperThread;
+        });
+    }
+
+    /**
+     * @return how many threads each search uses
+     */
+    public int getThreadCount() {
+        return engines.length;
+    }
+
+    /**
+     * Searches for the best move of the team whose turn it is
+     *
+     * @param game   the game to search from, which is left unchanged
+     * @param limits when to stop searching. The node limit is shared evenly between the threads.
+     * @return the best move found, with the nodes of every thread counted together
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        long startNanos = System.nanoTime();
+        if (game.evaluateStatus(game.getTeamTurn()).isGameOver()) {
+            return new SearchResult(null, 0, 0, 0, 0, engines.length);
+        }
+        SearchLimits threadLimits = new SearchLimits(limits.maxDepth(), Math.max(1, limits.maxNodes() / engines.length),
+                                                     limits.maxMillis());
+        transpositionTable.newSearch();
+
+        // Every thread searches its own copy of the board. The copies are made here, so that the helper
+        // threads never touch the game, which is not safe to share between threads.
+        ChessGame.TeamColor sideToMove = game.getTeamTurn();
+        int halfmoveClock = game.getHalfmoveClock();
+        long[] keyHistory = game.getPositionKeyHistory();
+        List<Future<SearchResult>> helperSearches = new ArrayList<>();
+        SearchResult bestResult;
+        try {
+            for (int i = 1; i < engines.length; i++) {
+                SearchEngine helperEngine = engines[i];
+                helperEngine.clearStopRequest();
+                ChessBoard helperBoard = game.getBoard();
+                int firstDepth = 1 + (i % 2);
+                helperSearches.add(helperExecutor.submit(
+                        () -> helperEngine.searchBoard(helperBoard, sideToMove, halfmoveClock, keyHistory, threadLimits, firstDepth)));
+            }
+            bestResult = engines[0].searchBoard(game.getBoard(), sideToMove, halfmoveClock, keyHistory, threadLimits, 1);
+        } finally {
+            // Without a time or node limit the helpers would otherwise search on forever, even after the
+            // main thread has failed
+            stopHelpers(helperSearches);
+        }
+
+        long totalNodes = bestResult.nodes();
+        for (Future<SearchResult> helperSearch : helperSearches) {
+            SearchResult helperResult = awaitHelper(helperSearch);
+            totalNodes += helperResult.nodes();
+            if (helperResult.depth() > bestResult.depth()) {
+                bestResult = helperResult;
+            }
+        }
+        return new SearchResult(bestResult.bestMove(), bestResult.score(), bestResult.depth(), totalNodes,
+                                System.nanoTime() - startNanos, engines.length);
+    }
+
+    /**
+     * Releases the helper threads. Every search has stopped its helpers by the time it returns, so the
+     * threads are idle and end at once.
+     */
+    @Override
+    public void close() {
+        helperExecutor.shutdown();
+    }
+
+    // Stops the helpers and waits until every one has finished, leaving their results or failures to be
+    // read afterwards
+    private void stopHelpers(List<Future<SearchResult>> helperSearches) {
+        for (int i = 1; i < engines.length; i++) {
+            engines[i].requestStop();
+        }
+        boolean interrupted = false;
+        for (Future<SearchResult> helperSearch : helperSearches) {
+            while (!helperSearch.isDone()) {
+                try {
+                    helperSearch.get();
+                } catch (InterruptedException e) {
+                    // The helpers have been told to stop and will do so shortly, so they are still waited for
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SearchResult awaitHelper(Future<SearchResult> helperSearch) {
+        try {
+            return helperSearch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a helper search thread.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A helper search thread failed.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Scores a position by the material each team has left, counted straight from the piece bitboards
+ */
+public final class MaterialEvaluator implements Evaluator {
+
+    // The value of each piece in centipawns, indexed by PieceType ordinal. The King is never captured,
+    // so it is given no value.
+    private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    @Override
+    public int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        int whiteMaterial = 0;
+        int blackMaterial = 0;
+        for (ChessPiece.PieceType type : PIECE_TYPES) {
+            whiteMaterial += PIECE_VALUES[type.ordinal()] * Bitboards.countSquares(board.getPieceBitboard(ChessGame.TeamColor.WHITE, type));
+            blackMaterial += PIECE_VALUES[type.ordinal()] * Bitboards.countSquares(board.getPieceBitboard(ChessGame.TeamColor.BLACK, type));
+        }
+        return (sideToMove == ChessGame.TeamColor.WHITE) ? whiteMaterial - blackMaterial : blackMaterial - whiteMaterial;
+    }
+
+    /**
+     * @param type a type of piece
+     * @return the value of the piece in centipawns
+     */
+    public static int pieceValue(ChessPiece.PieceType type) {
+        return PIECE_VALUES[type.ordinal()];
+    }
+}
@@ -0,0 +1,161 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveList;
+import chess.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Decides the order in which the search tries moves. Alpha-beta cuts off the most branches when the best
+ * move is tried first, so moves are tried in order of how likely they are to be best:
+ * <ol>
+ *     <li>the best move of the previous iteration, when there is one</li>
+ *     <li>captures and promotions, most valuable victim first and then least valuable attacker first
+ *     (MVV-LVA), so that winning a queen with a pawn comes before winning a pawn with a queen</li>
+ *     <li>the two "killer" quiet moves that most recently caused a cutoff at the same ply, since a move
+ *     that refuted one line is often good in the sibling lines too</li>
+ *     <li>the remaining quiet moves, by how often they have caused cutoffs anywhere in the tree
+ *     (the history heuristic), weighted towards cutoffs found with more depth left to search</li>
+ * </ol>
+ */
+final class MoveOrdering {
+
+    private static final int PRIORITY_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int FIRST_KILLER_SCORE = 1 << 27;
+    private static final int SECOND_KILLER_SCORE = FIRST_KILLER_SCORE - 1;
+    // History scores are halved whenever one passes this, so they always stay below the killer scores
+    private static final int MAX_HISTORY_SCORE = 1 << 20;
+
+    // Two killer moves for each ply, the most recent first
+    private final int[][] killerMoves = new int[SearchEngine.MAX_PLY][2];
+    // Indexed by TeamColor ordinal, then by the start square and end square of the move
+    private final int[][][] historyScores = new int[2][64][64];
+
+    /**
+     * Forgets the killer moves and ages the history scores before a new search, so that what was learned
+     * in the previous position still helps without outweighing what is learned in this one
+     */
+    void prepareForSearch() {
+        for (int[] plyKillers : killerMoves) {
+            Arrays.fill(plyKillers, PackedMove.NONE);
+        }
+        for (int[][] teamHistory : historyScores) {
+            for (int[] fromSquareHistory : teamHistory) {
+                for (int toSquare = 0; toSquare < 64; toSquare++) {
+                    fromSquareHistory[toSquare] >>= 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scores every move of a list so that higher scores are tried first
+     *
+     * @param board        the board the moves are made on, which is not changed
+     * @param moves        the moves to score
+     * @param scores       filled with the score of each move, at the same index as the move
+     * @param ply          how many moves from the root the moves are made at
+     * @param sideToMove   the team making the moves
+     * @param priorityMove a move to try before all others, or PackedMove.NONE
+     */
+    void scoreMoves(ChessBoard board, MoveList moves, int[] scores, int ply, ChessGame.TeamColor sideToMove, int priorityMove) {
+        int[][] teamHistory = historyScores[sideToMove.ordinal()];
+        int[] plyKillers = killerMoves[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (priorityMove != PackedMove.NONE && PackedMove.sameMovement(move, priorityMove)) {
+                scores[i] = PRIORITY_MOVE_SCORE;
+            } else if (isTactical(move)) {
+                scores[i] = CAPTURE_SCORE + tacticalScore(board, move);
+            } else if (move == plyKillers[0]) {
+                scores[i] = FIRST_KILLER_SCORE;
+            } else if (move == plyKillers[1]) {
+                scores[i] = SECOND_KILLER_SCORE;
+            } else {
+                scores[i] = teamHistory[PackedMove.fromSquare(move)][PackedMove.toSquare(move)];
+            }
+        }
+    }
+
+    /**
+     * Scores captures and promotions by MVV-LVA alone, for the quiescence search
+     */
+    void scoreTacticalMoves(ChessBoard board, MoveList moves, int[] scores) {
+        for (int i = 0; i < moves.size(); i++) {
+            scores[i] = tacticalScore(board, moves.get(i));
+        }
+    }
+
+    /**
+     * Remembers a quiet move that caused a beta cutoff, as a killer at its ply and in the history scores
+     */
+    void recordCutoff(int move, int ply, ChessGame.TeamColor sideToMove, int depth) {
+        if (isTactical(move)) {
+            // Captures and promotions are already tried early by MVV-LVA
+            return;
+        }
+        int[] plyKillers = killerMoves[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+
+        int[][] teamHistory = historyScores[sideToMove.ordinal()];
+        int newScore = teamHistory[PackedMove.fromSquare(move)][PackedMove.toSquare(move)] += depth * depth;
+        if (newScore > MAX_HISTORY_SCORE) {
+            for (int[] fromSquareHistory : teamHistory) {
+                for (int toSquare = 0; toSquare < 64; toSquare++) {
+                    fromSquareHistory[toSquare] >>= 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the highest scored move at or after an index to that index, so that the moves are put in
+     * order one at a time as they are needed. A cutoff often comes after the first few moves, when
+     * sorting the rest would have been wasted.
+     *
+     * @return the move now at the index
+     */
+    static int selectNextMove(MoveList moves, int[] scores, int index) {
+        int bestIndex = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        int bestMove = moves.get(bestIndex);
+        if (bestIndex != index) {
+            int bestScore = scores[bestIndex];
+            moves.set(bestIndex, moves.get(index));
+            scores[bestIndex] = scores[index];
+            moves.set(index, bestMove);
+            scores[index] = bestScore;
+        }
+        return bestMove;
+    }
+
+    static boolean isTactical(int move) {
+        return PackedMove.isCapture(move) || PackedMove.isPromotion(move);
+    }
+
+    // Ten times the victim's value less a tenth of the attacker's, so that the victim always decides first
+    private static int tacticalScore(ChessBoard board, int move) {
+        int score = 0;
+        if (PackedMove.isCapture(move)) {
+            int victimIndex = board.pieceIndexAt(PackedMove.toSquare(move));
+            int attackerIndex = board.pieceIndexAt(PackedMove.fromSquare(move));
+            score += 10 * MaterialEvaluator.pieceValue(Bitboards.pieceType(victimIndex))
+                     - MaterialEvaluator.pieceValue(Bitboards.pieceType(attackerIndex)) / 10;
+        }
+        if (PackedMove.isPromotion(move)) {
+            score += 10 * MaterialEvaluator.pieceValue(PackedMove.promotionType(move));
+        }
+        return score;
+    }
+}
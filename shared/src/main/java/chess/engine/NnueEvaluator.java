@@ -0,0 +1,168 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.PackedMove;
+import chess.Zobrist;
+
+import java.util.Arrays;
+
+/**
+ * Scores positions with an NnueNetwork, keeping the network's accumulators up to date as the search
+ * makes and takes back moves.
+ * <p>
+ * The evaluator keeps a stack of accumulators, one level for each move made on the search's board. A
+ * move copies the accumulators of the level below and then subtracts the weights of the features that
+ * went away and adds those of the features that appeared: at most two of each, even for a capture or a
+ * promotion. Taking a move back just drops its level. Scoring a position then only runs the small output
+ * layer, rather than summing the weights of every piece on the board.
+ * <p>
+ * Each level also keeps the Zobrist key of the board it describes. A board that does not match the top
+ * level, such as one scored without a search, has its accumulators computed from scratch, so the
+ * evaluator always gives the same score for the same board.
+ * <p>
+ * The accumulator updates run over plain short arrays, reading and writing each at the same index, which
+ * the JIT compiler turns into SIMD instructions on CPUs that have them. An evaluator is not thread-safe,
+ * but evaluators on different threads may share one network.
+ */
+public final class NnueEvaluator implements Evaluator {
+
+    private final NnueNetwork network;
+    private final int hiddenSize;
+    // The accumulators of each level, for White's and Black's points of view
+    private short[][] whiteAccumulators = new short[0][];
+    private short[][] blackAccumulators = new short[0][];
+    private long[] levelKeys = new long[0];
+    private int topLevel = 0;
+
+    /**
+     * @param network the network to score positions with
+     */
+    public NnueEvaluator(NnueNetwork network) {
+        this.network = network;
+        this.hiddenSize = network.getHiddenSize();
+        growLevels(16);
+        // Not the key of any board likely to be scored, so that the first board scored is refreshed
+        levelKeys[0] = ~0L;
+    }
+
+    @Override
+    public int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        if (levelKeys[topLevel] != board.getZobristKey()) {
+            refresh(board, topLevel);
+        }
+        boolean whiteToMove = sideToMove == ChessGame.TeamColor.WHITE;
+        short[] sideToMoveAccumulators = whiteToMove ? whiteAccumulators[topLevel] : blackAccumulators[topLevel];
+        short[] otherAccumulators = whiteToMove ? blackAccumulators[topLevel] : whiteAccumulators[topLevel];
+
+        short[] outputWeights = network.outputWeights;
+        int sum = network.outputBias;
+        for (int neuron = 0; neuron < hiddenSize; neuron++) {
+            sum += clippedActivation(sideToMoveAccumulators[neuron]) * outputWeights[neuron];
+        }
+        for (int neuron = 0; neuron < hiddenSize; neuron++) {
+            sum += clippedActivation(otherAccumulators[neuron]) * outputWeights[hiddenSize + neuron];
+        }
+        return (int) ((long) sum * NnueNetwork.OUTPUT_SCALE / (NnueNetwork.ACTIVATION_LIMIT * NnueNetwork.OUTPUT_WEIGHT_SCALE));
+    }
+
+    @Override
+    public void startSearch(ChessBoard board) {
+        topLevel = 0;
+        refresh(board, 0);
+    }
+
+    @Override
+    public void makeMove(ChessBoard board, int packedMove) {
+        int fromSquare = PackedMove.fromSquare(packedMove);
+        int toSquare = PackedMove.toSquare(packedMove);
+        int movedPieceIndex = board.pieceIndexAt(fromSquare);
+        int capturedPieceIndex = board.pieceIndexAt(toSquare);
+        int placedPieceIndex = movedPieceIndex;
+        if (PackedMove.isPromotion(packedMove)) {
+            placedPieceIndex = Bitboards.pieceIndex(Bitboards.pieceColor(movedPieceIndex), PackedMove.promotionType(packedMove));
+        }
+
+        if (topLevel + 1 == levelKeys.length) {
+            growLevels(levelKeys.length * 2);
+        }
+        int newLevel = topLevel + 1;
+        short[] newWhiteAccumulators = whiteAccumulators[newLevel];
+        short[] newBlackAccumulators = blackAccumulators[newLevel];
+        System.arraycopy(whiteAccumulators[topLevel], 0, newWhiteAccumulators, 0, hiddenSize);
+        System.arraycopy(blackAccumulators[topLevel], 0, newBlackAccumulators, 0, hiddenSize);
+        long key = levelKeys[topLevel];
+
+        removeFeature(newWhiteAccumulators, newBlackAccumulators, movedPieceIndex, fromSquare);
+        key ^= Zobrist.pieceSquareKey(movedPieceIndex, fromSquare);
+        if (capturedPieceIndex >= 0) {
+            removeFeature(newWhiteAccumulators, newBlackAccumulators, capturedPieceIndex, toSquare);
+            key ^= Zobrist.pieceSquareKey(capturedPieceIndex, toSquare);
+        }
+        addFeature(newWhiteAccumulators, newBlackAccumulators, placedPieceIndex, toSquare);
+        key ^= Zobrist.pieceSquareKey(placedPieceIndex, toSquare);
+
+        topLevel = newLevel;
+        levelKeys[topLevel] = key;
+    }
+
+    @Override
+    public void unmakeMove() {
+        if (topLevel > 0) {
+            topLevel--;
+        }
+    }
+
+    // Computes both points of view's accumulators at a level from every piece on the board
+    private void refresh(ChessBoard board, int level) {
+        short[] levelWhiteAccumulators = whiteAccumulators[level];
+        short[] levelBlackAccumulators = blackAccumulators[level];
+        System.arraycopy(network.featureBiases, 0, levelWhiteAccumulators, 0, hiddenSize);
+        System.arraycopy(network.featureBiases, 0, levelBlackAccumulators, 0, hiddenSize);
+        long remaining = board.getOccupancy();
+        while (remaining != 0) {
+            int square = Bitboards.lowestSquare(remaining);
+            addFeature(levelWhiteAccumulators, levelBlackAccumulators, board.pieceIndexAt(square), square);
+            remaining = Bitboards.withoutLowestSquare(remaining);
+        }
+        levelKeys[level] = board.getZobristKey();
+    }
+
+    private void addFeature(short[] whiteAccumulators, short[] blackAccumulators, int pieceIndex, int square) {
+        addWeights(whiteAccumulators, network.featureWeights[NnueNetwork.featureIndex(pieceIndex, square, false)]);
+        addWeights(blackAccumulators, network.featureWeights[NnueNetwork.featureIndex(pieceIndex, square, true)]);
+    }
+
+    private void removeFeature(short[] whiteAccumulators, short[] blackAccumulators, int pieceIndex, int square) {
+        subtractWeights(whiteAccumulators, network.featureWeights[NnueNetwork.featureIndex(pieceIndex, square, false)]);
+        subtractWeights(blackAccumulators, network.featureWeights[NnueNetwork.featureIndex(pieceIndex, square, true)]);
+    }
+
+    private void addWeights(short[] accumulators, short[] weights) {
+        for (int neuron = 0; neuron < hiddenSize; neuron++) {
+            accumulators[neuron] += weights[neuron];
+        }
+    }
+
+    private void subtractWeights(short[] accumulators, short[] weights) {
+        for (int neuron = 0; neuron < hiddenSize; neuron++) {
+            accumulators[neuron] -= weights[neuron];
+        }
+    }
+
+    private void growLevels(int levelCount) {
+        int oldLevelCount = levelKeys.length;
+        whiteAccumulators = Arrays.copyOf(whiteAccumulators, levelCount);
+        blackAccumulators = Arrays.copyOf(blackAccumulators, levelCount);
+        levelKeys = Arrays.copyOf(levelKeys, levelCount);
+        for (int level = oldLevelCount; level < levelCount; level++) {
+            whiteAccumulators[level] = new short[hiddenSize];
+            blackAccumulators[level] = new short[hiddenSize];
+        }
+    }
+
+    private static int clippedActivation(short accumulator) {
+        return Math.min(Math.max(accumulator, 0), NnueNetwork.ACTIVATION_LIMIT);
+    }
+}
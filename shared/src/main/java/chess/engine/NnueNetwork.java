@@ -0,0 +1,149 @@
+package chess.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The weights of a small quantized neural network for scoring positions, in the style of NNUE
+ * ("efficiently updatable neural network"). A network is read once and can then be shared by any number
+ * of NnueEvaluators on any number of threads, since it is never changed.
+ * <p>
+ * The network has 768 input features for each team's point of view: one for each (piece, square) pair,
+ * with the viewing team's own pieces first and the board flipped top to bottom for Black, so that both
+ * teams see their pieces start from row 1. The features feed a hidden layer of 16-bit "accumulators"
+ * through a feature transformer, one for each point of view. Only a few features change with each move,
+ * so an evaluator keeps the accumulators up to date by adding and subtracting the weights of those
+ * features rather than computing the layer again. The output is a clipped ReLU of both accumulators,
+ * the side to move's first, followed by a single output neuron.
+ * <p>
+ * A network file is little-endian, in order:
+ * <ul>
+ *     <li>4 bytes: the ASCII magic "CNUE"</li>
+ *     <li>int32: the format version, 1</li>
+ *     <li>int32: the hidden layer size H, from 1 to MAX_HIDDEN_SIZE</li>
+ *     <li>768 * H int16: the feature transformer weights, feature by feature</li>
+ *     <li>H int16: the feature transformer biases</li>
+ *     <li>2 * H int16: the output weights, for the side to move's accumulator and then the other's</li>
+ *     <li>int32: the output bias</li>
+ * </ul>
+ * Accumulator values are clipped to 0 through ACTIVATION_LIMIT before the output layer, and the output
+ * is scaled to centipawns by OUTPUT_SCALE / (ACTIVATION_LIMIT * OUTPUT_WEIGHT_SCALE), the quantization
+ * used by common NNUE trainers. Trained weights must keep the accumulators within 16 bits and the
+ * output sum within 32 bits, as such trainers do.
+ */
+public final class NnueNetwork {
+
+    public static final int FEATURE_COUNT = 768;
+    public static final int MAX_HIDDEN_SIZE = 4096;
+    public static final int ACTIVATION_LIMIT = 255;
+    public static final int OUTPUT_WEIGHT_SCALE = 64;
+    public static final int OUTPUT_SCALE = 400;
+
+    private static final int MAGIC = 'C' | ('N' << 8) | ('U' << 16) | ('E' << 24);
+    private static final int VERSION = 1;
+
+    private final int hiddenSize;
+    // One array of hiddenSize weights for each feature. Adding a feature's weights to an accumulator array
+    // then reads and writes both arrays at the same index, a loop the JIT compiler can vectorize.
+    final short[][] featureWeights;
+    final short[] featureBiases;
+    final short[] outputWeights;
+    final int outputBias;
+
+    NnueNetwork(int hiddenSize, short[][] featureWeights, short[] featureBiases, short[] outputWeights, int outputBias) {
+        this.hiddenSize = hiddenSize;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Reads a network from the classpath
+     *
+     * @param resourceName the name of the network file, as given to Class.getResourceAsStream()
+     * @return the network
+     * @throws IllegalArgumentException if there is no such resource or it is not a network file
+     */
+    public static NnueNetwork fromResource(String resourceName) {
+        try (InputStream networkStream = NnueNetwork.class.getResourceAsStream(resourceName)) {
+            if (networkStream == null) {
+                throw new IllegalArgumentException("There is no network resource named " + resourceName);
+            }
+            return read(networkStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the network resource " + resourceName, e);
+        }
+    }
+
+    /**
+     * Reads a network in the format described above, to the end of the stream
+     *
+     * @param networkStream the network file, which is not closed
+     * @return the network
+     * @throws IOException              if the stream cannot be read
+     * @throws IllegalArgumentException if the stream does not hold a network file
+     */
+    public static NnueNetwork read(InputStream networkStream) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(networkStream.readAllBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Network file does not start with the magic \"CNUE\".");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Network file has unsupported format version " + version + ".");
+            }
+            int hiddenSize = buffer.getInt();
+            if (hiddenSize < 1 || hiddenSize > MAX_HIDDEN_SIZE) {
+                throw new IllegalArgumentException("Network hidden layer size must be from 1 to " + MAX_HIDDEN_SIZE + ": " + hiddenSize);
+            }
+            short[][] featureWeights = new short[FEATURE_COUNT][];
+            for (int feature = 0; feature < FEATURE_COUNT; feature++) {
+                featureWeights[feature] = readShorts(buffer, hiddenSize);
+            }
+            short[] featureBiases = readShorts(buffer, hiddenSize);
+            short[] outputWeights = readShorts(buffer, 2 * hiddenSize);
+            int outputBias = buffer.getInt();
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Network file has " + buffer.remaining() + " unexpected bytes after its end.");
+            }
+            return new NnueNetwork(hiddenSize, featureWeights, featureBiases, outputWeights, outputBias);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Network file ends partway through.", e);
+        }
+    }
+
+    /**
+     * @return the number of accumulators for each point of view
+     */
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    /**
+     * @param pieceIndex      the piece bitboard index, as given by Bitboards.pieceIndex
+     * @param square          the 0-63 square index
+     * @param viewedFromBlack whether the feature is for Black's point of view rather than White's
+     * @return the index of the feature for that piece standing on that square
+     */
+    static int featureIndex(int pieceIndex, int square, boolean viewedFromBlack) {
+        if (viewedFromBlack) {
+            // Black's own pieces come first, and its row 8 becomes row 1
+            return ((pieceIndex + 6) % 12) * 64 + (square ^ 56);
+        }
+        return pieceIndex * 64 + square;
+    }
+
+    private static short[] readShorts(ByteBuffer buffer, int count) {
+        short[] values = new short[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = buffer.getShort();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,20 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * Scores a position by material and piece placement, tapered between the middlegame and the endgame by
+ * the material left. See PieceSquareTables for the scores.
+ * <p>
+ * The board keeps the sums behind the score up to date as moves are made and unmade, so scoring a
+ * position only reads them back rather than looking at any pieces.
+ */
+public final class PieceSquareEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        int whiteScore = board.getTaperedScore();
+        return (sideToMove == ChessGame.TeamColor.WHITE) ? whiteScore : -whiteScore;
+    }
+}
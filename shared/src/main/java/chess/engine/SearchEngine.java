@@ -0,0 +1,437 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.LegalMoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.Zobrist;
+
+/**
+ * Finds the best move in a position by searching the game tree below it.
+ * <p>
+ * The search is a negamax alpha-beta search: every score is from the point of view of the team to move,
+ * so one team's best score is the negation of the other's, and branches that cannot change the result
+ * are cut off as soon as they are found. It deepens iteratively, searching to depth 1, then 2, and so on,
+ * trying each iteration's best move first in the next. The early iterations cost little next to the last
+ * one, and they leave a good move ready whenever the limits stop the search. At the end of each line a
+ * quiescence search plays out the captures and promotions still available, so that no position is scored
+ * in the middle of an exchange. Moves are ordered by MoveOrdering, after the best move stored for the
+ * position in the transposition table, and a stored result that was searched deeply enough is used in
+ * place of searching the position again.
+ * <p>
+ * The search works on its own copy of the game's board, making and unmaking moves in place, and reuses
+ * its move lists, ordering tables and transposition table from one search to the next. An engine is
+ * therefore not thread-safe, but each bot game can keep its own engine for as long as the game lasts.
+ * Engines on different threads may share one transposition table.
+ * <p>
+ * Draws by the fifty-move rule, insufficient material and repetition are scored as 0. A position is
+ * counted as repeated as soon as it occurs a second time on the line being searched, since a team that
+ * could repeat it once could repeat it again. A position the game reached before the search started is
+ * only counted once it would occur a third time, as the game itself counts it, so that a team ahead
+ * steers clear of the draw and a team behind can steer into it.
+ */
+public final class SearchEngine {
+
+    public static final int MATE_SCORE = 30_000;
+    // Any score at least this large is a checkmate found within the search
+    public static final int MATE_THRESHOLD = MATE_SCORE - 1_000;
+
+    // The deepest ply the search can reach, counting the quiescence search
+    static final int MAX_PLY = 128;
+
+    private static final int INFINITE_SCORE = 32_000;
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+    // More legal moves than any chess position has
+    private static final int MAX_MOVES = 256;
+    // How many positions are visited between looks at the clock, less one
+    private static final int CLOCK_CHECK_MASK = 1023;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable transpositionTable;
+    private final MoveOrdering moveOrdering = new MoveOrdering();
+    private final MoveList[] movesByPly = new MoveList[MAX_PLY];
+    private final int[][] moveScoresByPly = new int[MAX_PLY][MAX_MOVES];
+    // The Zobrist key and halfmove clock of each position on the line being searched, indexed by ply
+    private final long[] positionKeys = new long[MAX_PLY + 1];
+    private final int[] halfmoveClocks = new int[MAX_PLY + 1];
+    // The keys of the game's positions before the search, oldest first, so that the position before the
+    // root is at gameKeys[gameKeyCount - 1]. Read as if at negative plies.
+    private long[] gameKeys = new long[0];
+    private int gameKeyCount;
+
+    private ChessBoard board;
+    private long nodes;
+    private long maxNodes;
+    private long deadlineNanos;
+    private boolean stopped;
+    // Set from another thread to stop the search early, as LazySmpSearch does with its helper threads
+    private volatile boolean stopRequested;
+    private int rootBestMove;
+    private int rootBestScore;
+
+    /**
+     * Creates an engine that scores positions by material and piece placement
+     */
+    public SearchEngine() {
+        this(new PieceSquareEvaluator());
+    }
+
+    /**
+     * Creates an engine with a transposition table of its own
+     *
+     * @param evaluator how to score the positions at the end of each line
+     */
+    public SearchEngine(Evaluator evaluator) {
+        this(evaluator, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param evaluator          how to score the positions at the end of each line
+     * @param transpositionTable where to keep search results, which may be shared with other engines
+     */
+    public SearchEngine(Evaluator evaluator, TranspositionTable transpositionTable) {
+        this.evaluator = evaluator;
+        this.transpositionTable = transpositionTable;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            movesByPly[ply] = new MoveList(MAX_MOVES);
+        }
+    }
+
+    /**
+     * Searches for the best move of the team whose turn it is
+     *
+     * @param game   the game to search from, which is left unchanged
+     * @param limits when to stop searching
+     * @return the best move found and how the search went
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        if (game.evaluateStatus(game.getTeamTurn()).isGameOver()) {
+            return new SearchResult(null, 0, 0, 0, 0, 1);
+        }
+        clearStopRequest();
+        transpositionTable.newSearch();
+        return searchBoard(game.getBoard(), game.getTeamTurn(), game.getHalfmoveClock(), game.getPositionKeyHistory(), limits, 1);
+    }
+
+    /**
+     * Searches a position that is known not to be a finished game, without starting a new search
+     * generation in the transposition table
+     *
+     * @param rootBoard     the board to search from, which the engine keeps and changes as it searches
+     * @param sideToMove    the team whose turn it is
+     * @param halfmoveClock the game's halfmove clock, for the fifty-move rule
+     * @param keyHistory    the game's position keys, as given by ChessGame.getPositionKeyHistory(), ending
+     *                      with the position searched. The engine only reads it, so threads may share it.
+     * @param limits        when to stop searching
+     * @param firstDepth    the depth of the first iteration, which helper threads vary
+     * @return the best move found and how the search went
+     */
+    SearchResult searchBoard(ChessBoard rootBoard, ChessGame.TeamColor sideToMove, int halfmoveClock, long[] keyHistory,
+                             SearchLimits limits, int firstDepth) {
+        long startNanos = System.nanoTime();
+        board = rootBoard;
+        nodes = 0;
+        maxNodes = limits.maxNodes();
+        deadlineNanos = (limits.maxMillis() > Long.MAX_VALUE / 1_000_000) ? Long.MAX_VALUE
+                                                                            : startNanos + limits.maxMillis() * 1_000_000;
+        stopped = false;
+        moveOrdering.prepareForSearch();
+        evaluator.startSearch(board);
+
+        MoveList rootMoves = new MoveList(MAX_MOVES);
+        new LegalMoveGenerator(board, sideToMove).addAllLegalMoves(rootMoves);
+        if (rootMoves.isEmpty()) {
+            return new SearchResult(null, 0, 0, 0, System.nanoTime() - startNanos, 1);
+        }
+        positionKeys[0] = board.getZobristKey() ^ Zobrist.sideToMoveKey(sideToMove);
+        halfmoveClocks[0] = halfmoveClock;
+        gameKeys = keyHistory;
+        gameKeyCount = Math.max(0, keyHistory.length - 1);
+
+        // The first iteration starts from the best move of an earlier search of this position, if it is stored
+        int priorityMove = TranspositionTable.move(transpositionTable.probe(positionKeys[0]));
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = Math.min(firstDepth, limits.maxDepth()); depth <= limits.maxDepth(); depth++) {
+            searchRoot(rootMoves, sideToMove, depth, priorityMove);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBestMove;
+            bestScore = rootBestScore;
+            completedDepth = depth;
+            priorityMove = bestMove;
+            transpositionTable.store(positionKeys[0], bestMove, bestScore, depth, TranspositionTable.BOUND_EXACT);
+            // Iterative deepening finds the quickest checkmate first, so searching deeper cannot improve on it
+            if (Math.abs(bestScore) >= MATE_THRESHOLD) {
+                break;
+            }
+        }
+        return new SearchResult(PackedMove.toChessMove(bestMove), bestScore, completedDepth, nodes, System.nanoTime() - startNanos, 1);
+    }
+
+    /**
+     * Stops a search running on another thread at its next look at the clock. The search still returns
+     * the result of the deepest iteration it finished.
+     */
+    void requestStop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Clears a stop requested by requestStop(), before a new search
+     */
+    void clearStopRequest() {
+        stopRequested = false;
+    }
+
+    // Searches every root move to the given depth, leaving the best in rootBestMove and rootBestScore
+    private void searchRoot(MoveList rootMoves, ChessGame.TeamColor sideToMove, int depth, int previousBestMove) {
+        int[] scores = moveScoresByPly[0];
+        moveOrdering.scoreMoves(board, rootMoves, scores, 0, sideToMove, previousBestMove);
+        ChessGame.TeamColor enemyColor = enemyOf(sideToMove);
+        int alpha = -INFINITE_SCORE;
+        rootBestMove = PackedMove.NONE;
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = MoveOrdering.selectNextMove(rootMoves, scores, i);
+            makeMove(move, 0, enemyColor);
+            int score = -negamax(depth - 1, 1, -INFINITE_SCORE, -alpha, enemyColor);
+            unmakeMove();
+            if (stopped) {
+                return;
+            }
+            if (score > alpha) {
+                alpha = score;
+                rootBestMove = move;
+            }
+        }
+        rootBestScore = alpha;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, ChessGame.TeamColor sideToMove) {
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta, sideToMove);
+        }
+        if (outOfBudget()) {
+            return 0;
+        }
+        if (isDraw(ply)) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(board, sideToMove);
+        }
+
+        long positionKey = positionKeys[ply];
+        long tableEntry = transpositionTable.probe(positionKey);
+        int tableMove = PackedMove.NONE;
+        if (tableEntry != TranspositionTable.NO_ENTRY) {
+            tableMove = TranspositionTable.move(tableEntry);
+            if (TranspositionTable.depth(tableEntry) >= depth) {
+                int tableScore = scoreFromTable(TranspositionTable.score(tableEntry), ply);
+                int bound = TranspositionTable.bound(tableEntry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                    || (bound == TranspositionTable.BOUND_LOWER && tableScore >= beta)
+                    || (bound == TranspositionTable.BOUND_UPPER && tableScore <= alpha)) {
+                    return tableScore;
+                }
+            }
+        }
+
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, sideToMove);
+        MoveList moves = movesByPly[ply];
+        moves.clear();
+        generator.addAllLegalMoves(moves);
+        if (moves.isEmpty()) {
+            // Checkmates nearer the root score higher, so the quickest one is preferred
+            return generator.isInCheck() ? -MATE_SCORE + ply : 0;
+        }
+
+        int[] scores = moveScoresByPly[ply];
+        moveOrdering.scoreMoves(board, moves, scores, ply, sideToMove, tableMove);
+        ChessGame.TeamColor enemyColor = enemyOf(sideToMove);
+        int originalAlpha = alpha;
+        int bestScore = -INFINITE_SCORE;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = MoveOrdering.selectNextMove(moves, scores, i);
+            makeMove(move, ply, enemyColor);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha, enemyColor);
+            unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    if (alpha >= beta) {
+                        moveOrdering.recordCutoff(move, ply, sideToMove, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound;
+        if (bestScore >= beta) {
+            bound = TranspositionTable.BOUND_LOWER;
+        } else if (bestScore > originalAlpha) {
+            bound = TranspositionTable.BOUND_EXACT;
+        } else {
+            bound = TranspositionTable.BOUND_UPPER;
+        }
+        transpositionTable.store(positionKey, bestMove, scoreToTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    // Plays out captures and promotions until the position is quiet enough to score. The team to move
+    // may also "stand pat" and keep the score of the position as it is, since it is never forced to
+    // capture. A team in check has no such choice, so every move out of check is searched instead.
+    private int quiescence(int ply, int alpha, int beta, ChessGame.TeamColor sideToMove) {
+        if (outOfBudget()) {
+            return 0;
+        }
+        if (board.hasInsufficientMaterial()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(board, sideToMove);
+        }
+
+        LegalMoveGenerator generator = new LegalMoveGenerator(board, sideToMove);
+        boolean inCheck = generator.isInCheck();
+        int bestScore = -INFINITE_SCORE;
+        if (!inCheck) {
+            bestScore = evaluator.evaluate(board, sideToMove);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MoveList moves = movesByPly[ply];
+        moves.clear();
+        generator.addAllLegalMoves(moves);
+        if (inCheck) {
+            if (moves.isEmpty()) {
+                return -MATE_SCORE + ply;
+            }
+        } else {
+            keepTacticalMoves(moves);
+        }
+
+        int[] scores = moveScoresByPly[ply];
+        moveOrdering.scoreTacticalMoves(board, moves, scores);
+        ChessGame.TeamColor enemyColor = enemyOf(sideToMove);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = MoveOrdering.selectNextMove(moves, scores, i);
+            makeMove(move, ply, enemyColor);
+            int score = -quiescence(ply + 1, -beta, -alpha, enemyColor);
+            unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    // Makes a move on the board, telling the evaluator first, and records the key and halfmove clock of
+    // the position it leads to
+    private void makeMove(int move, int ply, ChessGame.TeamColor enemyColor) {
+        boolean isPawnMove = Bitboards.pieceType(board.pieceIndexAt(PackedMove.fromSquare(move))) == ChessPiece.PieceType.PAWN;
+        evaluator.makeMove(board, move);
+        board.makeMove(move);
+        positionKeys[ply + 1] = board.getZobristKey() ^ Zobrist.sideToMoveKey(enemyColor);
+        halfmoveClocks[ply + 1] = (isPawnMove || PackedMove.isCapture(move)) ? 0 : halfmoveClocks[ply] + 1;
+    }
+
+    // Takes back the most recent move on the board, telling the evaluator after
+    private void unmakeMove() {
+        board.unmakeMove();
+        evaluator.unmakeMove();
+    }
+
+    private boolean isDraw(int ply) {
+        if (halfmoveClocks[ply] >= 100 || board.hasInsufficientMaterial()) {
+            return true;
+        }
+        // Only positions since the last capture or pawn move, with the same team to move, can repeat
+        long positionKey = positionKeys[ply];
+        int earliestPly = Math.max(-gameKeyCount, ply - halfmoveClocks[ply]);
+        int repetitions = 1;
+        for (int earlierPly = ply - 4; earlierPly >= earliestPly; earlierPly -= 2) {
+            if (earlierPly >= 0) {
+                if (positionKeys[earlierPly] == positionKey) {
+                    return true;
+                }
+            } else if (gameKeys[gameKeyCount + earlierPly] == positionKey && ++repetitions == 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Counts a visited position and reports whether the search must stop. The clock and stop request are
+    // only read every so often, since reading them costs more than visiting a position.
+    private boolean outOfBudget() {
+        nodes++;
+        if (nodes >= maxNodes
+            || ((nodes & CLOCK_CHECK_MASK) == 0 && (stopRequested || System.nanoTime() >= deadlineNanos))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    // Mate scores count moves from the root, but a stored score may be used at any ply, so they are stored
+    // counting moves from the position itself instead
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE_THRESHOLD) {
+            return score + ply;
+        }
+        if (score <= -MATE_THRESHOLD) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_THRESHOLD) {
+            return score - ply;
+        }
+        if (score <= -MATE_THRESHOLD) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    // Removes every move that neither captures nor promotes, keeping the rest in order
+    private static void keepTacticalMoves(MoveList moves) {
+        int keptCount = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (MoveOrdering.isTactical(move)) {
+                moves.set(keptCount++, move);
+            }
+        }
+        moves.truncate(keptCount);
+    }
+
+    private static ChessGame.TeamColor enemyOf(ChessGame.TeamColor teamColor) {
+        return (teamColor == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,44 @@
+package chess.engine;
+
+/**
+ * How far a search may go. The search stops at whichever limit it reaches first, and always returns the
+ * best move of the deepest iteration it finished.
+ *
+ * @param maxDepth  the deepest iteration to search, in moves, from 1 up to MAX_DEPTH
+ * @param maxNodes  the most positions to visit, counted across every iteration
+ * @param maxMillis the most time to spend, in milliseconds
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long maxMillis) {
+
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be from 1 to " + MAX_DEPTH + ": " + maxDepth);
+        }
+        if (maxNodes < 1 || maxMillis < 1) {
+            throw new IllegalArgumentException("Search node and time limits must be positive.");
+        }
+    }
+
+    /**
+     * @return limits that stop only at the given depth
+     */
+    public static SearchLimits ofDepth(int maxDepth) {
+        return new SearchLimits(maxDepth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return limits that stop only after the given number of milliseconds
+     */
+    public static SearchLimits ofMillis(long maxMillis) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, maxMillis);
+    }
+
+    /**
+     * @return limits that stop only after visiting the given number of positions
+     */
+    public static SearchLimits ofNodes(long maxNodes) {
+        return new SearchLimits(MAX_DEPTH, maxNodes, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,41 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a search
+ *
+ * @param bestMove     the best move found, or null if the team to move has no legal moves
+ * @param score        the score of the best move in centipawns, from the point of view of the team to
+ *                     move. Scores beyond SearchEngine.MATE_THRESHOLD announce a forced checkmate.
+ * @param depth        the deepest iteration the search finished
+ * @param nodes        the number of positions visited, including those of an unfinished iteration
+ * @param elapsedNanos how long the search took
+ * @param threadCount  how many threads searched
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long elapsedNanos, int threadCount) {
+
+    /**
+     * @return the positions visited per second of elapsed time, by all of the threads together
+     */
+    public long nodesPerSecond() {
+        return (elapsedNanos == 0) ? 0 : (long) (nodes * 1_000_000_000.0 / elapsedNanos);
+    }
+
+    /**
+     * Measures how well a search scaled across its threads. With perfect scaling this stays the same
+     * as threads are added; it falls when the threads wait on each other or on memory.
+     *
+     * @return the positions visited per second of elapsed time, per thread
+     */
+    public long nodesPerSecondPerThread() {
+        return nodesPerSecond() / threadCount;
+    }
+
+    /**
+     * @return whether the score announces a forced checkmate, for either team
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= SearchEngine.MATE_THRESHOLD;
+    }
+}
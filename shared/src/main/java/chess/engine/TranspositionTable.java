@@ -0,0 +1,243 @@
+package chess.engine;
+
+import chess.PackedMove;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A fixed-size table of search results, keyed by the Zobrist hash of the position searched.
+ * <p>
+ * The same position is often reached by different orders of the same moves. The search stores what it
+ * learned about each position here, the score, how deep it searched and the best move, so that when the
+ * position comes up again the result can be reused or its best move tried first.
+ * <p>
+ * Each entry is two longs: the data, with every field packed into one long, and the key XORed with the
+ * data. A lookup XORs the two back together and only trusts the entry when that gives the key it is
+ * looking for. Two threads writing one entry at once can leave the halves of different entries side by
+ * side, but such a torn entry fails this check and is treated as missing, so the table can be shared by
+ * any number of searching threads without locks.
+ * <p>
+ * Entries are grouped into buckets of four, 64 bytes to a bucket, so that a lookup reads a single cache
+ * line. When a bucket is full, a new entry replaces the entry that was searched least deeply, counting
+ * entries from earlier searches as shallower the older they are.
+ * <p>
+ * The entries can be kept on the Java heap or off it in a direct buffer. An off-heap table is never
+ * scanned or moved by the garbage collector, which matters once tables grow to hundreds of megabytes.
+ */
+public final class TranspositionTable {
+
+    public static final int MAX_SIZE_MEGABYTES = 1024;
+
+    /** The score is exact */
+    public static final int BOUND_EXACT = 1;
+    /** The score is at least the stored score, since the search stopped at a beta cutoff */
+    public static final int BOUND_LOWER = 2;
+    /** The score is at most the stored score, since no move reached alpha */
+    public static final int BOUND_UPPER = 3;
+
+    /** What probe() returns when the position has no entry */
+    public static final long NO_ENTRY = 0L;
+
+    private static final int ENTRIES_PER_BUCKET = 4;
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int ENTRY_BYTES = LONGS_PER_ENTRY * Long.BYTES;
+
+    // Bit layout of the packed data: move (16), score (16), depth (8), bound (2), generation (6)
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int GENERATION_SHIFT = 42;
+    private static final int GENERATION_MASK = 0x3F;
+    private static final int MAX_STORED_DEPTH = 0xFF;
+
+    private final LongBuffer entries;
+    private final int bucketMask;
+    private final boolean offHeap;
+    // Counts searches, so entries can tell how old they are. Written between searches only.
+    private volatile int generation;
+
+    /**
+     * Creates a table on the Java heap
+     *
+     * @param sizeMegabytes the most memory to use, from 1 to MAX_SIZE_MEGABYTES
+     */
+    public TranspositionTable(int sizeMegabytes) {
+        this(sizeMegabytes, false);
+    }
+
+    /**
+     * @param sizeMegabytes the most memory to use, from 1 to MAX_SIZE_MEGABYTES. The table takes the
+     *                      largest power of two number of buckets that fits.
+     * @param offHeap       whether to keep the entries in a direct buffer outside of the Java heap
+     */
+    public TranspositionTable(int sizeMegabytes, boolean offHeap) {
+        if (sizeMegabytes < 1 || sizeMegabytes > MAX_SIZE_MEGABYTES) {
+            throw new IllegalArgumentException("Transposition table size must be from 1 to " + MAX_SIZE_MEGABYTES
+                                               + " megabytes: " + sizeMegabytes);
+        }
+        long bucketCount = Long.highestOneBit((long) sizeMegabytes * 1024 * 1024 / (ENTRIES_PER_BUCKET * ENTRY_BYTES));
+        int longCount = (int) (bucketCount * ENTRIES_PER_BUCKET * LONGS_PER_ENTRY);
+        // A direct buffer starts zeroed like an array, and an all-zero entry reads as empty
+        this.entries = offHeap ? ByteBuffer.allocateDirect(longCount * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer()
+                               : LongBuffer.allocate(longCount);
+        this.bucketMask = (int) bucketCount - 1;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Starts a new search, so that entries from earlier searches are replaced before those of this one
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Finds the entry for a position
+     *
+     * @param key the Zobrist hash of the position, including the team to move
+     * @return the packed entry, to be read with the static accessors, or NO_ENTRY if there is none
+     */
+    public long probe(long key) {
+        int bucketStart = bucketStart(key);
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++) {
+            int entryStart = bucketStart + i * LONGS_PER_ENTRY;
+            long data = entries.get(entryStart + 1);
+            if ((entries.get(entryStart) ^ data) == key && data != NO_ENTRY) {
+                return data;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    /**
+     * Stores what a search learned about a position, replacing its old entry or the least valuable
+     * entry in its bucket
+     *
+     * @param key   the Zobrist hash of the position, including the team to move
+     * @param move  the best packed move found, or PackedMove.NONE if no move was better than the others
+     * @param score the score found, which must fit in a short
+     * @param depth how many moves deep the position was searched
+     * @param bound BOUND_EXACT, BOUND_LOWER or BOUND_UPPER, for what the score means
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int currentGeneration = generation;
+        int bucketStart = bucketStart(key);
+        int replacedStart = bucketStart;
+        int lowestValue = Integer.MAX_VALUE;
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++) {
+            int entryStart = bucketStart + i * LONGS_PER_ENTRY;
+            long data = entries.get(entryStart + 1);
+            if ((entries.get(entryStart) ^ data) == key && data != NO_ENTRY) {
+                // A search that found no best move keeps the one found before
+                if (move == PackedMove.NONE) {
+                    move = move(data);
+                }
+                replacedStart = entryStart;
+                break;
+            }
+            int value = replacementValue(data, currentGeneration);
+            if (value < lowestValue) {
+                lowestValue = value;
+                replacedStart = entryStart;
+            }
+        }
+
+        long data = (move & 0xFFFFL)
+                    | ((score & 0xFFFFL) << SCORE_SHIFT)
+                    | ((long) Math.min(depth, MAX_STORED_DEPTH) << DEPTH_SHIFT)
+                    | ((long) bound << BOUND_SHIFT)
+                    | ((long) currentGeneration << GENERATION_SHIFT);
+        entries.put(replacedStart, key ^ data);
+        entries.put(replacedStart + 1, data);
+    }
+
+    /**
+     * Empties the table. Must not be called while a search is using it.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.capacity(); i++) {
+            entries.put(i, 0L);
+        }
+        generation = 0;
+    }
+
+    /**
+     * @return how many entries the table holds when full
+     */
+    public int capacity() {
+        return (bucketMask + 1) * ENTRIES_PER_BUCKET;
+    }
+
+    /**
+     * @return whether the entries are kept outside of the Java heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Estimates how full the table is from a sample of its first buckets, counting only entries written
+     * during the current search
+     *
+     * @return the estimate in thousandths, from 0 to 1000
+     */
+    public int permilleFull() {
+        int sampledBuckets = Math.min(bucketMask + 1, 1000 / ENTRIES_PER_BUCKET);
+        int currentGeneration = generation;
+        int usedEntries = 0;
+        for (int i = 0; i < sampledBuckets * ENTRIES_PER_BUCKET; i++) {
+            long data = entries.get(i * LONGS_PER_ENTRY + 1);
+            if (data != NO_ENTRY && generation(data) == currentGeneration) {
+                usedEntries++;
+            }
+        }
+        return usedEntries * 1000 / (sampledBuckets * ENTRIES_PER_BUCKET);
+    }
+
+    /**
+     * @return the best packed move of an entry, or PackedMove.NONE
+     */
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    /**
+     * @return the score of an entry
+     */
+    public static int score(long entry) {
+        return (short) (entry >>> SCORE_SHIFT);
+    }
+
+    /**
+     * @return how many moves deep the entry's position was searched
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_STORED_DEPTH;
+    }
+
+    /**
+     * @return BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+    private int bucketStart(long key) {
+        return ((int) key & bucketMask) * ENTRIES_PER_BUCKET * LONGS_PER_ENTRY;
+    }
+
+    // Empty entries are replaced first, then shallow ones, with each search of age costing 8 moves of depth
+    private static int replacementValue(long entry, int currentGeneration) {
+        if (entry == NO_ENTRY) {
+            return Integer.MIN_VALUE;
+        }
+        int age = (currentGeneration - generation(entry)) & GENERATION_MASK;
+        return depth(entry) - 8 * age;
+    }
+}
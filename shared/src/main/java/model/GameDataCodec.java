@@ -0,0 +1,122 @@
+package model;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact, versioned binary encoding of GameData, built on ChessGameCodec.
+ * <p>
+ * Layout of version 1, in order:
+ * <ul>
+ *     <li>1 byte: the format version</li>
+ *     <li>1 byte: flags. Bit 0 is set when the game is active, and bit 1 when there is a ChessGame.</li>
+ *     <li>varint: the game ID</li>
+ *     <li>the white username, black username and game name, each as a varint of its UTF-8 length plus
+ *     one followed by its UTF-8 bytes, or a single 0 byte when it is null</li>
+ *     <li>the ChessGame as written by ChessGameCodec, when there is one</li>
+ * </ul>
+ */
+public final class GameDataCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int GAME_ACTIVE_FLAG = 1;
+    private static final int HAS_GAME_FLAG = 2;
+
+    private GameDataCodec() {
+    }
+
+    /**
+     * Encodes game data into a new array of exactly the right size
+     *
+     * @param gameData the game data to encode
+     * @return the encoded game data
+     */
+    public static byte[] encode(GameData gameData) {
+        byte[] whiteUsername = utf8Bytes(gameData.whiteUsername());
+        byte[] blackUsername = utf8Bytes(gameData.blackUsername());
+        byte[] gameName = utf8Bytes(gameData.gameName());
+        int encodedSize = 2 + ChessGameCodec.varintSize(gameData.gameID()) + stringSize(whiteUsername)
+                          + stringSize(blackUsername) + stringSize(gameName)
+                          + ((gameData.game() == null) ? 0 : ChessGameCodec.encodedSize(gameData.game()));
+
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize);
+        buffer.put(VERSION);
+        buffer.put((byte) ((gameData.gameActive() ? GAME_ACTIVE_FLAG : 0) | ((gameData.game() == null) ? 0 : HAS_GAME_FLAG)));
+        ChessGameCodec.putVarint(buffer, gameData.gameID());
+        putString(buffer, whiteUsername);
+        putString(buffer, blackUsername);
+        putString(buffer, gameName);
+        if (gameData.game() != null) {
+            ChessGameCodec.encode(gameData.game(), buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes game data from an array holding nothing else
+     *
+     * @param encodedGameData the bytes written by encode()
+     * @return new game data equal to the data encoded
+     * @throws IllegalArgumentException if the bytes are not game data in a known version of the format
+     */
+    public static GameData decode(byte[] encodedGameData) {
+        ByteBuffer buffer = ByteBuffer.wrap(encodedGameData);
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Encoded game data has unsupported format version " + version + ".");
+            }
+            int flags = buffer.get();
+            if ((flags & ~(GAME_ACTIVE_FLAG | HAS_GAME_FLAG)) != 0) {
+                throw new IllegalArgumentException("Encoded game data has unknown flags " + flags + ".");
+            }
+            int gameID = ChessGameCodec.getVarint(buffer);
+            String whiteUsername = getString(buffer);
+            String blackUsername = getString(buffer);
+            String gameName = getString(buffer);
+            ChessGame game = ((flags & HAS_GAME_FLAG) != 0) ? ChessGameCodec.decode(buffer) : null;
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Encoded game data has " + buffer.remaining() + " unexpected bytes after its end.");
+            }
+            return new GameData(gameID, whiteUsername, blackUsername, gameName, game, (flags & GAME_ACTIVE_FLAG) != 0);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Encoded game data ends partway through.", e);
+        }
+    }
+
+    private static byte[] utf8Bytes(String text) {
+        return (text == null) ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] utf8Bytes) {
+        return (utf8Bytes == null) ? 1 : ChessGameCodec.varintSize(utf8Bytes.length + 1) + utf8Bytes.length;
+    }
+
+    // The length is stored plus one so that 0 can stand for null
+    private static void putString(ByteBuffer buffer, byte[] utf8Bytes) {
+        if (utf8Bytes == null) {
+            ChessGameCodec.putVarint(buffer, 0);
+            return;
+        }
+        ChessGameCodec.putVarint(buffer, utf8Bytes.length + 1);
+        buffer.put(utf8Bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int lengthPlusOne = ChessGameCodec.getVarint(buffer);
+        if (lengthPlusOne == 0) {
+            return null;
+        }
+        if (lengthPlusOne - 1 > buffer.remaining()) {
+            throw new IllegalArgumentException("Encoded game data has a string longer than the data holding it.");
+        }
+        String text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), lengthPlusOne - 1, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + lengthPlusOne - 1);
+        return text;
+    }
+}
@@ -0,0 +1,104 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessBoardTest {
+
+    private static final String PROMOTION_BOARD = """
+            -n--k---
+            P-------
+            --------
+            --------
+            --------
+            --------
+            --------
+            ----K---
+            """;
+
+    @Test
+    void unmakeRestoresCapture() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessBoard original = board.deepCopy();
+        board.makeMove(new ChessMove(new ChessPosition(1, 4), new ChessPosition(7, 4), null));
+        assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN), board.getPiece(new ChessPosition(7, 4)));
+        assertNull(board.getPiece(new ChessPosition(1, 4)));
+
+        board.unmakeMove();
+        assertEquals(original, board);
+        assertEquals(original.getZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    void unmakeRestoresPromotionCapture() {
+        ChessBoard board = ChessBoard.fromString(PROMOTION_BOARD);
+        ChessBoard original = board.deepCopy();
+        board.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT));
+        assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT), board.getPiece(new ChessPosition(8, 2)));
+        assertEquals(0L, board.getPieceBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+
+        board.unmakeMove();
+        assertEquals(original, board);
+        assertEquals(original.getZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    void unmakeInReverseOrder() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessBoard original = board.deepCopy();
+        board.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        board.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        board.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+        board.unmakeMove();
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(original, board);
+        assertThrows(IllegalStateException.class, board::unmakeMove);
+    }
+
+    @Test
+    void makeFromEmptySquare() {
+        ChessBoard board = new ChessBoard();
+        assertThrows(IllegalArgumentException.class,
+                     () -> board.makeMove(new ChessMove(new ChessPosition(3, 3), new ChessPosition(4, 3), null)));
+    }
+
+    @Test
+    void deepCopyIsIndependent() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessBoard boardCopy = board.deepCopy();
+        boardCopy.addPiece(new ChessPosition(2, 1), null);
+        assertNotEquals(board, boardCopy);
+        assertNotNull(board.getPiece(new ChessPosition(2, 1)));
+    }
+
+    @Test
+    void packedMoveRoundTrip() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+        int packedPromotion = PackedMove.fromChessMove(promotion);
+        assertEquals(promotion, PackedMove.toChessMove(packedPromotion));
+        assertEquals("a7b8n", PackedMove.toString(packedPromotion));
+
+        ChessBoard chessMoveBoard = ChessBoard.fromString(PROMOTION_BOARD);
+        ChessBoard packedMoveBoard = ChessBoard.fromString(PROMOTION_BOARD);
+        chessMoveBoard.makeMove(promotion);
+        packedMoveBoard.makeMove(packedPromotion);
+        assertEquals(chessMoveBoard, packedMoveBoard);
+    }
+
+    @Test
+    void kingSquareFollowsMoves() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        assertEquals(Bitboards.squareIndex(1, 5), board.getKingSquare(ChessGame.TeamColor.WHITE));
+        board.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        assertEquals(Bitboards.squareIndex(2, 5), board.getKingSquare(ChessGame.TeamColor.WHITE));
+        board.unmakeMove();
+        assertEquals(Bitboards.squareIndex(1, 5), board.getKingSquare(ChessGame.TeamColor.WHITE));
+        assertEquals(-1, new ChessBoard().getKingSquare(ChessGame.TeamColor.BLACK));
+    }
+}
@@ -0,0 +1,123 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGameCodecTest {
+
+    @Test
+    void playedGameRoundTrips() throws InvalidMoveException {
+        ChessGame game = playRandomGame(120, 18);
+        byte[] encodedGame = ChessGameCodec.encode(game);
+        assertEquals(ChessGameCodec.encodedSize(game), encodedGame.length);
+
+        ChessGame decodedGame = ChessGameCodec.decode(encodedGame);
+        assertEquals(game, decodedGame);
+        assertEquals(game.toFen(), decodedGame.toFen());
+        assertEquals(game.moveHistoryView(), decodedGame.moveHistoryView());
+        assertArrayEquals(encodedGame, ChessGameCodec.encode(decodedGame));
+    }
+
+    @Test
+    void gamesFollowOneAnotherInABuffer() {
+        List<ChessGame> games = List.of(new ChessGame(), ChessGame.fromFen("7k/8/8/8/8/8/5q2/7K b - - 37 80"));
+        ByteBuffer buffer = ByteBuffer.allocate(ChessGameCodec.encodedSize(games.get(0)) + ChessGameCodec.encodedSize(games.get(1)));
+        for (ChessGame game : games) {
+            ChessGameCodec.encode(game, buffer);
+        }
+        assertFalse(buffer.hasRemaining());
+
+        buffer.flip();
+        for (ChessGame game : games) {
+            assertEquals(game.toFen(), ChessGameCodec.decode(buffer).toFen());
+        }
+    }
+
+    @Test
+    void varintsRoundTripAtEveryLength() {
+        int[] values = {0, 1, 127, 128, 16_383, 16_384, 2_097_151, 2_097_152, Integer.MAX_VALUE};
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        for (int value : values) {
+            buffer.clear();
+            ChessGameCodec.putVarint(buffer, value);
+            assertEquals(ChessGameCodec.varintSize(value), buffer.position(), "Wrong size for " + value);
+            buffer.flip();
+            assertEquals(value, ChessGameCodec.getVarint(buffer));
+        }
+    }
+
+    @Test
+    void malformedBytesAreRejected() {
+        byte[] encodedGame = ChessGameCodec.encode(new ChessGame());
+
+        byte[] wrongVersion = encodedGame.clone();
+        wrongVersion[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(wrongVersion));
+
+        byte[] unknownPiece = encodedGame.clone();
+        unknownPiece[10] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(unknownPiece));
+
+        byte[] truncated = new byte[encodedGame.length - 1];
+        System.arraycopy(encodedGame, 0, truncated, 0, truncated.length);
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(truncated));
+    }
+
+    @Test
+    void corruptFieldsAreRejected() {
+        byte[] encodedGame = ChessGameCodec.encode(new ChessGame());
+        // The version, flags and board take 34 bytes, followed by the halfmove clock and full move number
+        byte[] fullmoveZero = encodedGame.clone();
+        fullmoveZero[35] = 0;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(fullmoveZero));
+
+        // 0x7000 and 0x6000 would promote to no piece and to a pawn, and 0x1000 to a King
+        for (int corruptMove : new int[]{0x7000 | 0x0200, 0x6000 | 0x0200, 0x1000 | 0x0200, 0x0041}) {
+            byte[] withMove = withOneMove(encodedGame, corruptMove);
+            assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(withMove),
+                         "Accepted move " + Integer.toHexString(corruptMove));
+        }
+        // Promoting to a Rook is still allowed
+        ChessMove rookPromotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.ROOK);
+        assertEquals(List.of(rookPromotion),
+                     ChessGameCodec.decode(withOneMove(encodedGame, PackedMove.fromChessMove(rookPromotion))).moveHistoryView());
+    }
+
+    @Test
+    void overlongVarintsAreRejected() {
+        // Bits past the 31st of an int, and a sixth byte
+        byte[][] overlongVarints = {{-1, -1, -1, -1, 0x7F}, {-1, -1, -1, -1, 0x08}, {-1, -1, -1, -1, -1, 0x01}};
+        for (byte[] varint : overlongVarints) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.getVarint(ByteBuffer.wrap(varint)));
+        }
+        assertEquals(Integer.MAX_VALUE, ChessGameCodec.getVarint(ByteBuffer.wrap(new byte[]{-1, -1, -1, -1, 0x07})));
+    }
+
+    // Replaces the empty move history at the end of an encoded game with a single move
+    private static byte[] withOneMove(byte[] encodedGame, int packedMove) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedGame.length + 2);
+        buffer.put(encodedGame, 0, encodedGame.length - 1);
+        buffer.put((byte) 1);
+        buffer.putShort((short) packedMove);
+        return buffer.array();
+    }
+
+    // Plays random legal moves from the start, stopping early if the game ends
+    private static ChessGame playRandomGame(int plies, long seed) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Random random = new Random(seed);
+        for (int ply = 0; ply < plies; ply++) {
+            List<ChessMove> legalMoves = List.copyOf(game.allLegalMoves(game.getTeamTurn()));
+            if (legalMoves.isEmpty()) {
+                break;
+            }
+            game.makeMove(legalMoves.get(random.nextInt(legalMoves.size())));
+        }
+        return game;
+    }
+}
@@ -0,0 +1,226 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessGameTest {
+
+    @Test
+    void evaluateStatusOfEachCondition() {
+        ChessGame game = new ChessGame();
+        assertEquals(ChessGame.GameStatus.NORMAL, game.evaluateStatus(ChessGame.TeamColor.WHITE));
+
+        game.setBoard(ChessBoard.fromString("""
+                                                    -------k
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    ------q-
+                                                    -------K
+                                                    """));
+        assertEquals(ChessGame.GameStatus.CHECK, game.evaluateStatus(ChessGame.TeamColor.WHITE));
+
+        game.setBoard(ChessBoard.fromString("""
+                                                    -------k
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    ----n---
+                                                    ------q-
+                                                    -------K
+                                                    """));
+        assertEquals(ChessGame.GameStatus.CHECKMATE, game.evaluateStatus(ChessGame.TeamColor.WHITE));
+        assertTrue(game.evaluateStatus(ChessGame.TeamColor.WHITE).isGameOver());
+
+        game.setBoard(ChessBoard.fromString("""
+                                                    -------k
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    -----q--
+                                                    -------K
+                                                    """));
+        assertEquals(ChessGame.GameStatus.STALEMATE, game.evaluateStatus(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void pinnedPiecesMoveOnlyAlongThePin() {
+        ChessGame game = new ChessGame();
+        game.setBoard(ChessBoard.fromString("""
+                                                    k---r---
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    -b------
+                                                    --------
+                                                    ---BR---
+                                                    ----K---
+                                                    """));
+        assertEquals(moves(2, 5, 3, 5, 4, 5, 5, 5, 6, 5, 7, 5, 8, 5), game.validMoves(new ChessPosition(2, 5)));
+        assertEquals(moves(2, 4, 3, 3, 4, 2), game.validMoves(new ChessPosition(2, 4)));
+        assertEquals(moves(1, 5, 1, 4, 1, 6, 2, 6), game.validMoves(new ChessPosition(1, 5)));
+    }
+
+    @Test
+    void checkIsEscapedByMovingBlockingOrCapturing() {
+        ChessGame game = new ChessGame();
+        game.setBoard(ChessBoard.fromString("""
+                                                    ----r--k
+                                                    --------
+                                                    R-------
+                                                    -B------
+                                                    --------
+                                                    --N-----
+                                                    --------
+                                                    ----K--B
+                                                    """));
+        assertEquals(moves(1, 5, 1, 4, 2, 4, 1, 6, 2, 6), game.validMoves(new ChessPosition(1, 5)));
+        assertEquals(moves(3, 3, 2, 5, 4, 5), game.validMoves(new ChessPosition(3, 3)));
+        assertEquals(moves(6, 1, 6, 5), game.validMoves(new ChessPosition(6, 1)));
+        // One Bishop can block or capture the Rook, the other can only block it
+        assertEquals(moves(5, 2, 2, 5, 8, 5), game.validMoves(new ChessPosition(5, 2)));
+        assertEquals(moves(1, 8, 4, 5), game.validMoves(new ChessPosition(1, 8)));
+    }
+
+    @Test
+    void onlyTheKingMovesInDoubleCheck() {
+        ChessGame game = new ChessGame();
+        game.setBoard(ChessBoard.fromString("""
+                                                    ----r--k
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    ---n----
+                                                    --------
+                                                    ---QK---
+                                                    """));
+        // The Queen could capture the Knight or block the Rook, but not both
+        assertEquals(moves(1, 4), game.validMoves(new ChessPosition(1, 4)));
+        assertEquals(moves(1, 5, 2, 4, 1, 6), game.validMoves(new ChessPosition(1, 5)));
+    }
+
+    @Test
+    void makeMoveChecksOnlyTheSubmittedMove() {
+        ChessGame game = new ChessGame();
+        game.setBoard(ChessBoard.fromString("""
+                                                    ----k---
+                                                    -P--r---
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    --------
+                                                    ----R---
+                                                    ----K---
+                                                    """));
+        // The rook is pinned to its King, so it may only move along the pin
+        assertThrows(InvalidMoveException.class,
+                     () -> game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(2, 1), null)));
+        // A pawn reaching the last row must promote, and never to a King or a pawn
+        assertThrows(InvalidMoveException.class,
+                     () -> game.makeMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), null)));
+        assertThrows(InvalidMoveException.class,
+                     () -> game.makeMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.KING)));
+        assertDoesNotThrow(() -> game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(7, 5), null)));
+    }
+
+    @Test
+    void allLegalMovesMatchesValidMoves() {
+        ChessGame game = ChessGame.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        HashSet<ChessMove> pieceByPieceMoves = new HashSet<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int column = 1; column <= 8; column++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, column));
+                if (piece != null && piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                    pieceByPieceMoves.addAll(game.validMoves(new ChessPosition(row, column)));
+                }
+            }
+        }
+        assertEquals(pieceByPieceMoves, game.allLegalMoves(ChessGame.TeamColor.WHITE));
+
+        MoveList moveBuffer = new MoveList();
+        assertEquals(46, game.allLegalMoves(ChessGame.TeamColor.WHITE, moveBuffer));
+        // The buffer is cleared rather than appended to when reused
+        assertEquals(46, game.allLegalMoves(ChessGame.TeamColor.WHITE, moveBuffer));
+        assertEquals(46, moveBuffer.size());
+    }
+
+    @Test
+    void threefoldRepetitionIsADraw() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove[] knightShuffle = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null),
+        };
+        for (int ply = 0; ply < 7; ply++) {
+            game.makeMove(knightShuffle[ply % knightShuffle.length]);
+            assertEquals(ChessGame.GameStatus.NORMAL, game.evaluateStatus(game.getTeamTurn()));
+        }
+        assertEquals(2, game.getRepetitionCount(), "The position after Ng1 has occurred twice");
+        game.makeMove(knightShuffle[3]);
+        assertEquals(3, game.getRepetitionCount());
+        assertEquals(ChessGame.GameStatus.DRAW_BY_REPETITION, game.evaluateStatus(ChessGame.TeamColor.WHITE));
+        assertTrue(game.evaluateStatus(ChessGame.TeamColor.WHITE).isDraw());
+
+        // The repetitions are rebuilt from the move history when the game is read back
+        ChessGame readGame = ChessJson.gson().fromJson(ChessJson.gson().toJson(game), ChessGame.class);
+        assertEquals(ChessGame.GameStatus.DRAW_BY_REPETITION, readGame.evaluateStatus(ChessGame.TeamColor.WHITE));
+        assertEquals(3, ChessGameCodec.decode(ChessGameCodec.encode(game)).getRepetitionCount());
+        assertEquals(3, game.deepCopy().getRepetitionCount());
+    }
+
+    @Test
+    void fiftyMoveRuleIsADraw() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("7k/8/8/8/8/8/R7/K7 w - - 99 80");
+        assertEquals(ChessGame.GameStatus.NORMAL, game.evaluateStatus(ChessGame.TeamColor.WHITE));
+        game.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(2, 2), null));
+        assertEquals(100, game.getHalfmoveClock());
+        assertEquals(ChessGame.GameStatus.DRAW_BY_FIFTY_MOVES, game.evaluateStatus(ChessGame.TeamColor.BLACK));
+
+        // Checkmate on the fiftieth move still wins
+        ChessGame matingGame = ChessGame.fromFen("7k/8/6K1/8/8/8/8/R7 w - - 99 80");
+        matingGame.makeMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null));
+        assertEquals(ChessGame.GameStatus.CHECKMATE, matingGame.evaluateStatus(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void insufficientMaterialIsADraw() {
+        String[] drawnFens = {
+                "7k/8/8/8/8/8/8/K7 w - - 0 1",
+                "7k/8/8/8/8/8/8/KN6 w - - 0 1",
+                "5b1k/8/8/8/8/8/8/K1B5 w - - 0 1",
+        };
+        for (String fen : drawnFens) {
+            assertEquals(ChessGame.GameStatus.DRAW_BY_INSUFFICIENT_MATERIAL, ChessGame.fromFen(fen).evaluateStatus(ChessGame.TeamColor.WHITE), fen);
+        }
+        String[] playableFens = {
+                "2b4k/8/8/8/8/8/8/K1B5 w - - 0 1",
+                "7k/8/8/8/8/8/8/KNN5 w - - 0 1",
+                "7k/8/8/8/8/8/P7/K7 w - - 0 1",
+        };
+        for (String fen : playableFens) {
+            assertEquals(ChessGame.GameStatus.NORMAL, ChessGame.fromFen(fen).evaluateStatus(ChessGame.TeamColor.WHITE), fen);
+        }
+    }
+
+    // The moves from a start square to each end square, given as the start row and column followed by
+    // the row and column of each end square
+    private static HashSet<ChessMove> moves(int startRow, int startColumn, int... endRowsAndColumns) {
+        ChessPosition startPosition = new ChessPosition(startRow, startColumn);
+        HashSet<ChessMove> moves = new HashSet<>();
+        for (int i = 0; i < endRowsAndColumns.length; i += 2) {
+            moves.add(new ChessMove(startPosition, new ChessPosition(endRowsAndColumns[i], endRowsAndColumns[i + 1]), null));
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,69 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessJsonTest {
+
+    private static final Gson SERIALIZER = ChessJson.gson();
+
+    @Test
+    void gameIsWrittenAsFenAndMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        String gameJson = SERIALIZER.toJson(game);
+        assertEquals("{\"fen\":\"rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1\",\"moveHistory\":[\"e2e4\"]}", gameJson);
+
+        ChessGame readGame = SERIALIZER.fromJson(gameJson, ChessGame.class);
+        assertEquals(game, readGame);
+        assertEquals(game.moveHistoryView(), readGame.moveHistoryView());
+        assertEquals(gameJson, SERIALIZER.toJson(readGame));
+    }
+
+    @Test
+    void movesAndPiecesUseShortForms() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN);
+        assertEquals("\"a7a8q\"", SERIALIZER.toJson(promotion));
+        assertEquals(promotion, SERIALIZER.fromJson("\"a7a8q\"", ChessMove.class));
+        assertEquals("\"n\"", SERIALIZER.toJson(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT)));
+        assertEquals(new ChessPosition(4, 5), SERIALIZER.fromJson("\"e4\"", ChessPosition.class));
+
+        // A move off the board has no coordinate notation, so it keeps the older form
+        ChessMove offBoardMove = new ChessMove(new ChessPosition(8, 1), new ChessPosition(9, 1), null);
+        assertEquals(offBoardMove, SERIALIZER.fromJson(SERIALIZER.toJson(offBoardMove), ChessMove.class));
+
+        assertThrows(JsonParseException.class, () -> SERIALIZER.fromJson("\"e2e9\"", ChessMove.class));
+    }
+
+    @Test
+    void reflectiveGameCanBeRead() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        // Plain Gson writes every field by reflection, as games were stored before the adapters existed
+        String reflectiveJson = new Gson().toJson(game);
+
+        ChessGame readGame = SERIALIZER.fromJson(reflectiveJson, ChessGame.class);
+        assertEquals(game.toFen(), readGame.toFen());
+        assertEquals(game.getZobristKey(), readGame.getZobristKey());
+        assertEquals(game.moveHistoryView(), readGame.moveHistoryView());
+    }
+
+    @Test
+    void squareGridBoardCanBeRead() {
+        // The oldest stored boards were an 8x8 grid of pieces, starting from row 1
+        String emptyRow = "[null,null,null,null,null,null,null,null]";
+        String gridJson = "{\"activeBoard\":{\"boardSquares\":["
+                          + "[null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"KING\"},null,null,null],"
+                          + emptyRow + "," + emptyRow + "," + emptyRow + "," + emptyRow + "," + emptyRow + ","
+                          + "[{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},null,null,null,null,null,null,null],"
+                          + "[null,null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"KING\"},null,null,null]"
+                          + "]},\"activeTeam\":\"BLACK\",\"moveHistory\":[]}";
+
+        ChessGame readGame = SERIALIZER.fromJson(gridJson, ChessGame.class);
+        assertEquals("4k3/p7/8/8/8/8/8/4K3 b - - 0 1", readGame.toFen());
+    }
+}
@@ -0,0 +1,74 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTest {
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    @Test
+    void startPositionMatchesNewGame() {
+        ChessGame newGame = new ChessGame();
+        assertEquals(START_FEN, newGame.toFen());
+        assertEquals(newGame, ChessGame.fromFen(START_FEN));
+    }
+
+    @Test
+    void standardPositionsRoundTrip() {
+        for (Perft.PerftPosition position : Perft.loadStandardPositions()) {
+            ChessGame game = ChessGame.fromFen(position.fen());
+            assertEquals(position.fen(), game.toFen());
+            assertEquals(game.getZobristKey(), ChessGame.fromFen(game.toFen()).getZobristKey());
+        }
+    }
+
+    @Test
+    void moveCountersFollowMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        // Nf3 then Nc6: neither is a pawn move or a capture
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertEquals("rnbqkbnr/pppppppp/8/8/8/5N2/PPPPPPPP/RNBQKB1R b - - 1 1", game.toFen());
+        game.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+        assertEquals("r1bqkbnr/pppppppp/2n5/8/8/5N2/PPPPPPPP/RNBQKB1R w - - 2 2", game.toFen());
+        // e4 is a pawn move, so the halfmove clock starts over
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(2, game.getFullmoveNumber());
+
+        ChessGame gameCopy = game.deepCopy();
+        assertEquals(game.toFen(), gameCopy.toFen());
+    }
+
+    @Test
+    void optionalFieldsAndWhitespace() {
+        ChessGame game = ChessGame.fromFen("  7k/8/8/8/8/8/5q2/7K   b  ");
+        assertEquals("7k/8/8/8/8/8/5q2/7K b - - 0 1", game.toFen());
+        // Castling and en passant fields are accepted but play no part in this implementation
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 2",
+                     ChessGame.fromFen("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2").toFen());
+    }
+
+    @Test
+    void malformedFenIsRejected() {
+        String[] malformedFens = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w - - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+                "rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KX - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - -1 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1 extra",
+        };
+        for (String malformedFen : malformedFens) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(malformedFen), malformedFen);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMoveCacheTest {
+
+    @Test
+    void changedBoardIsNotServedStaleMoves() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        ChessPosition knightPosition = new ChessPosition(1, 2);
+        assertEquals(2, game.validMoves(knightPosition).size());
+
+        // Changing the board the game holds, rather than going through the game, must still be noticed
+        board.addPiece(new ChessPosition(3, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        assertEquals(1, game.validMoves(knightPosition).size());
+        board.addPiece(new ChessPosition(3, 1), null);
+        assertEquals(2, game.validMoves(knightPosition).size());
+    }
+
+    @Test
+    void statusAndPerftDoNotFillSharedCache() {
+        // A position no other test asks about, with White in check
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/1b6/8/2P5/4K2R w K - 0 1");
+        LegalMoveCache cache = LegalMoveCache.shared();
+        assertEquals(ChessGame.GameStatus.CHECK, game.evaluateStatus(ChessGame.TeamColor.WHITE));
+        assertNull(cache.cachedLegalMoves(game.boardView(), ChessGame.TeamColor.WHITE));
+        Perft.countNodes(game, 2);
+        assertNull(cache.cachedLegalMoves(game.boardView(), ChessGame.TeamColor.WHITE));
+
+        // Asking for a piece's moves fills the cache, and the status check then uses it
+        assertEquals(1, game.validMoves(new ChessPosition(2, 3)).size());
+        assertNotNull(cache.cachedLegalMoves(game.boardView(), ChessGame.TeamColor.WHITE));
+        assertEquals(ChessGame.GameStatus.CHECK, game.evaluateStatus(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void capacityIsBounded() {
+        LegalMoveCache cache = new LegalMoveCache(64);
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < 500 && !game.evaluateStatus(game.getTeamTurn()).isGameOver(); i++) {
+            int[] legalMoves = cache.legalMoves(game.getBoard(), game.getTeamTurn());
+            assertSame(legalMoves, cache.legalMoves(game.getBoard(), game.getTeamTurn()));
+            try {
+                game.makeMove(PackedMove.toChessMove(legalMoves[i % legalMoves.length]));
+            } catch (InvalidMoveException e) {
+                fail(e);
+            }
+        }
+        assertTrue(cache.size() <= 64);
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,45 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    // Deep enough to reach promotions and checks, shallow enough to keep the test run quick
+    private static final int MAX_TEST_NODES = 200_000;
+
+    @Test
+    void standardPositionsMatchKnownCounts() {
+        List<Perft.PerftPosition> positions = Perft.loadStandardPositions();
+        assertFalse(positions.isEmpty());
+        for (Perft.PerftPosition position : positions) {
+            for (int depth = 1; depth <= position.maxDepth() && position.expectedNodes(depth) <= MAX_TEST_NODES; depth++) {
+                assertEquals(position.expectedNodes(depth), Perft.countNodes(ChessGame.fromFen(position.fen()), depth),
+                             "Wrong node count at depth " + depth + " for " + position.fen());
+            }
+        }
+    }
+
+    @Test
+    void countingLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        ChessGame original = game.deepCopy();
+        assertEquals(400, Perft.countNodes(game, 2));
+        assertEquals(original, game);
+    }
+
+    @Test
+    void parallelCountMatchesSequentialCount() {
+        ChessGame game = ChessGame.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(Perft.countNodes(game, 3), Perft.countNodesParallel(game, 3, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PieceSquareTablesTest {
+
+    @Test
+    void startingBoardIsBalanced() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        assertEquals(0, board.getMiddlegameScore());
+        assertEquals(0, board.getEndgameScore());
+        assertEquals(PieceSquareTables.MAX_PHASE, board.getGamePhase());
+        assertEquals(0, board.getTaperedScore());
+    }
+
+    @Test
+    void incrementalScoresMatchRebuiltScores() {
+        ChessBoard board = ChessGame.fromFen("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 2 3").getBoard();
+        // Nxe5 and Nxe5, then a pawn that captures on a7 and promotes on b8. The board does not check
+        // that moves are legal, so the pawn can get there in one move.
+        int[] moves = {PackedMove.of(21, 36, null, true), PackedMove.of(42, 36, null, true),
+                       PackedMove.of(8, 48, null, true), PackedMove.of(48, 57, ChessPiece.PieceType.QUEEN, false)};
+        for (int move : moves) {
+            board.makeMove(move);
+            assertScoresMatch(ChessBoard.fromString(board.visualizeBoard()), board);
+        }
+        for (int i = 0; i < moves.length; i++) {
+            board.unmakeMove();
+        }
+        assertScoresMatch(ChessGame.fromFen("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 2 3").getBoard(), board);
+    }
+
+    @Test
+    void taperFollowsPhase() {
+        assertEquals(100, PieceSquareTables.taper(100, -50, PieceSquareTables.MAX_PHASE));
+        assertEquals(-50, PieceSquareTables.taper(100, -50, 0));
+        assertEquals(25, PieceSquareTables.taper(100, -50, PieceSquareTables.MAX_PHASE / 2));
+        // Promotions can add more phase than the starting pieces had
+        assertEquals(100, PieceSquareTables.taper(100, -50, PieceSquareTables.MAX_PHASE + 4));
+    }
+
+    @Test
+    void blackScoresMirrorWhite() {
+        ChessBoard whiteKnight = ChessGame.fromFen("4k3/8/8/8/4N3/8/8/4K3 w - - 0 1").getBoard();
+        ChessBoard blackKnight = ChessGame.fromFen("4k3/8/8/4n3/8/8/8/4K3 w - - 0 1").getBoard();
+        assertTrue(whiteKnight.getTaperedScore() > 0);
+        assertEquals(-whiteKnight.getTaperedScore(), blackKnight.getTaperedScore());
+    }
+
+    private static void assertScoresMatch(ChessBoard expected, ChessBoard actual) {
+        assertEquals(expected.getMiddlegameScore(), actual.getMiddlegameScore());
+        assertEquals(expected.getEndgameScore(), actual.getEndgameScore());
+        assertEquals(expected.getGamePhase(), actual.getGamePhase());
+    }
+}
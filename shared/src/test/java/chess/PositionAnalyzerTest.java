@@ -0,0 +1,38 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionAnalyzerTest {
+
+    @Test
+    void batchMatchesSingleAnalysis() {
+        List<ChessGame> games = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            games.add(new ChessGame());
+            games.add(ChessGame.fromFen("7k/8/8/8/8/4n3/6q1/7K w - - 0 1"));
+            games.add(ChessGame.fromFen("7k/8/8/8/8/8/5q2/7K w - - 0 1"));
+        }
+        List<PositionAnalyzer.PositionAnalysis> analyses = PositionAnalyzer.analyzeAll(games);
+        assertEquals(games.size(), analyses.size());
+        for (int i = 0; i < games.size(); i++) {
+            assertEquals(PositionAnalyzer.analyze(games.get(i)), analyses.get(i));
+        }
+
+        assertEquals(new PositionAnalyzer.PositionAnalysis(ChessGame.TeamColor.WHITE, 20, ChessGame.GameStatus.NORMAL), analyses.get(0));
+        assertEquals(new PositionAnalyzer.PositionAnalysis(ChessGame.TeamColor.WHITE, 0, ChessGame.GameStatus.CHECKMATE), analyses.get(1));
+        assertEquals(new PositionAnalyzer.PositionAnalysis(ChessGame.TeamColor.WHITE, 0, ChessGame.GameStatus.STALEMATE), analyses.get(2));
+    }
+
+    @Test
+    void analysisLeavesSharedCacheAlone() {
+        ChessGame game = ChessGame.fromFen("3qk3/8/8/8/8/8/8/R3K2R w KQ - 3 20");
+        assertEquals(new PositionAnalyzer.PositionAnalysis(ChessGame.TeamColor.WHITE, 22, ChessGame.GameStatus.NORMAL),
+                     PositionAnalyzer.analyze(game));
+        assertNull(LegalMoveCache.shared().cachedLegalMoves(game.boardView(), ChessGame.TeamColor.WHITE));
+    }
+}
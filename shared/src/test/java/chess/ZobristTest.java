@@ -0,0 +1,63 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTest {
+
+    @Test
+    void resetMatchesPieceByPiece() {
+        ChessBoard resetBoard = new ChessBoard();
+        resetBoard.resetBoard();
+        ChessBoard builtBoard = ChessBoard.fromString(resetBoard.visualizeBoard());
+        assertEquals(resetBoard.getZobristKey(), builtBoard.getZobristKey());
+        assertNotEquals(0L, resetBoard.getZobristKey());
+    }
+
+    @Test
+    void emptyBoardHasZeroKey() {
+        ChessBoard board = new ChessBoard();
+        assertEquals(0L, board.getZobristKey());
+        ChessPosition position = new ChessPosition(4, 5);
+        board.addPiece(position, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        assertNotEquals(0L, board.getZobristKey());
+        board.addPiece(position, null);
+        assertEquals(0L, board.getZobristKey());
+    }
+
+    @Test
+    void overwritingPieceReplacesItsKey() {
+        ChessBoard overwrittenBoard = new ChessBoard();
+        ChessPosition position = new ChessPosition(2, 3);
+        overwrittenBoard.addPiece(position, new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        overwrittenBoard.addPiece(position, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+
+        ChessBoard directBoard = new ChessBoard();
+        directBoard.addPiece(position, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        assertEquals(directBoard.getZobristKey(), overwrittenBoard.getZobristKey());
+    }
+
+    @Test
+    void incrementalKeyMatchesRebuiltKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        String[][] moves = {{"e2", "e4"}, {"d7", "d5"}, {"e4", "d5"}, {"d8", "d5"}, {"b1", "c3"}, {"d5", "a5"}};
+        for (String[] move : moves) {
+            game.makeMove(new ChessMove(ChessPosition.positionFromFileRank(move[0]),
+                                        ChessPosition.positionFromFileRank(move[1]), null));
+            ChessGame rebuiltGame = new ChessGame();
+            rebuiltGame.setBoard(ChessBoard.fromString(game.getBoard().visualizeBoard()));
+            rebuiltGame.setTeamTurn(game.getTeamTurn());
+            assertEquals(rebuiltGame.getZobristKey(), game.getZobristKey());
+        }
+    }
+
+    @Test
+    void sideToMoveChangesKey() {
+        ChessGame whiteToMove = new ChessGame();
+        ChessGame blackToMove = new ChessGame();
+        blackToMove.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(whiteToMove.getZobristKey(), blackToMove.getZobristKey());
+        assertEquals(whiteToMove.getBoard().getZobristKey(), blackToMove.getBoard().getZobristKey());
+    }
+}
@@ -0,0 +1,82 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazySmpSearchTest {
+
+    @Test
+    void threadsAgreeOnMateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result;
+        try (LazySmpSearch search = new LazySmpSearch(4, new TranspositionTable(4))) {
+            result = search.search(game, SearchLimits.ofDepth(4));
+        }
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertEquals(SearchEngine.MATE_SCORE - 1, result.score());
+        assertEquals(4, result.threadCount());
+    }
+
+    @Test
+    void nodeBudgetIsSharedBetweenThreads() {
+        ChessGame game = new ChessGame();
+        SearchResult result;
+        try (LazySmpSearch search = new LazySmpSearch(3, new TranspositionTable(4))) {
+            result = search.search(game, SearchLimits.ofNodes(9_000));
+        }
+
+        assertTrue(result.nodes() <= 9_000);
+        assertTrue(result.nodesPerSecondPerThread() <= result.nodesPerSecond());
+        assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+    }
+
+    @Test
+    void timeLimitStopsEveryThread() {
+        ChessGame game = ChessGame.fromFen("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 2 3");
+        SearchResult result;
+        try (LazySmpSearch search = new LazySmpSearch(2, new TranspositionTable(4))) {
+            result = search.search(game, SearchLimits.ofMillis(200));
+        }
+
+        assertNotNull(result.bestMove());
+        assertTrue(result.elapsedNanos() < 2_000_000_000L);
+    }
+
+    @Test
+    void failedMainSearchStopsHelpers() throws InterruptedException {
+        // The first evaluator made belongs to the main thread, and fails at once. The others count how
+        // often they are used, so that a helper still searching would show.
+        AtomicInteger evaluatorCount = new AtomicInteger();
+        AtomicLong helperEvaluations = new AtomicLong();
+        PieceSquareEvaluator pieceSquareEvaluator = new PieceSquareEvaluator();
+        LazySmpSearch search = new LazySmpSearch(3, new TranspositionTable(4), () -> {
+            boolean isMainEvaluator = evaluatorCount.getAndIncrement() == 0;
+            return (ChessBoard board, ChessGame.TeamColor sideToMove) -> {
+                if (isMainEvaluator) {
+                    throw new IllegalStateException("Main evaluator failed");
+                }
+                helperEvaluations.incrementAndGet();
+                return pieceSquareEvaluator.evaluate(board, sideToMove);
+            };
+        });
+        try (search) {
+            // Unlimited by time and nodes, so only being stopped ends the helpers
+            assertThrows(IllegalStateException.class, () -> search.search(new ChessGame(), SearchLimits.ofDepth(SearchLimits.MAX_DEPTH)));
+            long evaluationsAfterFailure = helperEvaluations.get();
+            Thread.sleep(100);
+            assertEquals(evaluationsAfterFailure, helperEvaluations.get());
+
+            // The same helper threads are used again by the next search
+            assertThrows(IllegalStateException.class, () -> search.search(new ChessGame(), SearchLimits.ofDepth(3)));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.LegalMoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntBinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NnueEvaluatorTest {
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] PAWN_VALUES = {0, 9, 3, 3, 5, 1};
+
+    @Test
+    void materialNetworkCountsMaterial() throws IOException {
+        NnueEvaluator evaluator = new NnueEvaluator(materialNetwork());
+        ChessBoard board = ChessGame.fromFen("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1").getBoard();
+
+        // A Rook against a Queen, four pawns down
+        assertEquals(-400, evaluator.evaluate(board, ChessGame.TeamColor.WHITE));
+        assertEquals(400, evaluator.evaluate(board, ChessGame.TeamColor.BLACK));
+
+        ChessBoard startingBoard = new ChessBoard();
+        startingBoard.resetBoard();
+        assertEquals(0, evaluator.evaluate(startingBoard, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void incrementalAccumulatorsMatchRefresh() throws IOException {
+        NnueNetwork network = randomNetwork(32, new Random(240));
+        NnueEvaluator incrementalEvaluator = new NnueEvaluator(network);
+        ChessGame game = ChessGame.fromFen("r3k2r/1P3ppp/2n5/4p3/4P3/5N2/P2P1PPP/R3KB1R w - - 0 1");
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor sideToMove = game.getTeamTurn();
+        incrementalEvaluator.startSearch(board);
+
+        // Play pseudo-random legal moves, including the capturing promotions open to the pawn on b7
+        Random moveChooser = new Random(7);
+        MoveList moves = new MoveList();
+        int movesMade = 0;
+        for (; movesMade < 40; movesMade++) {
+            moves.clear();
+            new LegalMoveGenerator(board, sideToMove).addAllLegalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            int move = moves.get(moveChooser.nextInt(moves.size()));
+            incrementalEvaluator.makeMove(board, move);
+            board.makeMove(move);
+            sideToMove = (sideToMove == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            assertEquals(new NnueEvaluator(network).evaluate(board, sideToMove), incrementalEvaluator.evaluate(board, sideToMove));
+        }
+        for (; movesMade > 0; movesMade--) {
+            board.unmakeMove();
+            incrementalEvaluator.unmakeMove();
+        }
+        assertEquals(new NnueEvaluator(network).evaluate(board, game.getTeamTurn()), incrementalEvaluator.evaluate(board, game.getTeamTurn()));
+    }
+
+    @Test
+    void searchWithNetworkWinsHangingQueen() throws IOException {
+        NnueNetwork network = materialNetwork();
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1");
+        SearchResult result = new SearchEngine(new NnueEvaluator(network)).search(game, SearchLimits.ofDepth(3));
+
+        assertEquals(new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 4), null), result.bestMove());
+        assertEquals(500, result.score());
+    }
+
+    @Test
+    void malformedNetworkIsRejected() throws IOException {
+        byte[] networkBytes = materialNetworkBytes();
+        byte[] wrongMagic = networkBytes.clone();
+        wrongMagic[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> NnueNetwork.read(new ByteArrayInputStream(wrongMagic)));
+        byte[] truncated = Arrays.copyOf(networkBytes, networkBytes.length - 3);
+        assertThrows(IllegalArgumentException.class, () -> NnueNetwork.read(new ByteArrayInputStream(truncated)));
+        assertThrows(IllegalArgumentException.class, () -> NnueNetwork.fromResource("/no-such-network.nnue"));
+    }
+
+    // Neuron 0 sums the viewing team's material in pawns and neuron 1 the other team's. The output weights
+    // turn their difference into centipawns: 4080 * 400 / (255 * 64) = 100.
+    private static NnueNetwork materialNetwork() throws IOException {
+        return NnueNetwork.read(new ByteArrayInputStream(materialNetworkBytes()));
+    }
+
+    private static byte[] materialNetworkBytes() {
+        return networkBytes(2, (feature, neuron) -> {
+            int pieceSlot = feature / 64;
+            boolean isOwnPiece = pieceSlot < 6;
+            return (isOwnPiece == (neuron == 0)) ? PAWN_VALUES[pieceSlot % 6] : 0;
+        }, new short[]{4080, -4080, 0, 0});
+    }
+
+    private static NnueNetwork randomNetwork(int hiddenSize, Random random) throws IOException {
+        short[] outputWeights = new short[2 * hiddenSize];
+        for (int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) (random.nextInt(129) - 64);
+        }
+        return NnueNetwork.read(new ByteArrayInputStream(
+                networkBytes(hiddenSize, (feature, neuron) -> random.nextInt(61) - 20, outputWeights)));
+    }
+
+    private static byte[] networkBytes(int hiddenSize, IntBinaryOperator featureWeight, short[] outputWeights) {
+        ByteBuffer buffer = ByteBuffer.allocate(12 + 2 * (NnueNetwork.FEATURE_COUNT * hiddenSize + 3 * hiddenSize) + 4)
+                                      .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(new byte[]{'C', 'N', 'U', 'E'}).putInt(1).putInt(hiddenSize);
+        for (int feature = 0; feature < NnueNetwork.FEATURE_COUNT; feature++) {
+            for (int neuron = 0; neuron < hiddenSize; neuron++) {
+                buffer.putShort((short) featureWeight.applyAsInt(feature, neuron));
+            }
+        }
+        for (int neuron = 0; neuron < hiddenSize; neuron++) {
+            buffer.putShort((short) 0);
+        }
+        for (short outputWeight : outputWeights) {
+            buffer.putShort(outputWeight);
+        }
+        buffer.putInt(0);
+        return buffer.array();
+    }
+}
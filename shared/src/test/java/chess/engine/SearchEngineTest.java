@@ -0,0 +1,90 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchEngineTest {
+
+    @Test
+    void findsMateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new SearchEngine().search(game, SearchLimits.ofDepth(4));
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertEquals(SearchEngine.MATE_SCORE - 1, result.score());
+        assertTrue(result.isMateScore());
+        // The mate is found at depth 1, so deeper iterations are not searched
+        assertEquals(1, result.depth());
+    }
+
+    @Test
+    void winsHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1");
+        SearchResult result = new SearchEngine().search(game, SearchLimits.ofDepth(3));
+
+        assertEquals(new ChessMove(new ChessPosition(1, 4), new ChessPosition(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 0);
+    }
+
+    @Test
+    void avoidsThreefoldRepetitionWhenAhead() throws InvalidMoveException {
+        // Material, plus a bonus for White's King standing on h1, which makes Kh1 the best move
+        Evaluator kingOnH1Evaluator = (board, sideToMove) -> {
+            int whiteScore = new MaterialEvaluator().evaluate(board, ChessGame.TeamColor.WHITE)
+                             + (board.getKingSquare(ChessGame.TeamColor.WHITE) == 7 ? 50 : 0);
+            return (sideToMove == ChessGame.TeamColor.WHITE) ? whiteScore : -whiteScore;
+        };
+        String fen = "6k1/8/8/8/8/8/8/R5K1 w - - 0 1";
+        ChessMove kingToH1 = new ChessMove(new ChessPosition(1, 7), new ChessPosition(1, 8), null);
+        SearchResult freshResult = new SearchEngine(kingOnH1Evaluator).search(ChessGame.fromFen(fen), SearchLimits.ofDepth(2));
+        assertEquals(kingToH1, freshResult.bestMove());
+        assertEquals(550, freshResult.score());
+
+        // Reach the position after Kh1 twice, once by way of g2, and come back to the starting position
+        ChessGame game = ChessGame.fromFen(fen);
+        int[][] kingMoves = {{1, 7, 1, 8}, {8, 7, 8, 8}, {1, 8, 2, 7}, {8, 8, 8, 7},
+                             {2, 7, 1, 8}, {8, 7, 8, 8}, {1, 8, 1, 7}, {8, 8, 8, 7}};
+        for (int[] move : kingMoves) {
+            game.makeMove(new ChessMove(new ChessPosition(move[0], move[1]), new ChessPosition(move[2], move[3]), null));
+        }
+        assertEquals(2, game.getRepetitionCount());
+
+        // Kh1 would now repeat a position for the third time, drawing a won game
+        SearchResult result = new SearchEngine(kingOnH1Evaluator).search(game, SearchLimits.ofDepth(2));
+        assertNotEquals(kingToH1, result.bestMove());
+        assertEquals(500, result.score());
+    }
+
+    @Test
+    void nodeBudgetIsRespected() {
+        ChessGame game = new ChessGame();
+        SearchResult result = new SearchEngine().search(game, new SearchLimits(SearchLimits.MAX_DEPTH, 5_000, Long.MAX_VALUE));
+
+        assertTrue(result.nodes() <= 5_000);
+        assertTrue(result.depth() < SearchLimits.MAX_DEPTH);
+        assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+    }
+
+    @Test
+    void searchLeavesGameUnchanged() {
+        String fen = "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 2 3";
+        ChessGame game = ChessGame.fromFen(fen);
+        new SearchEngine().search(game, SearchLimits.ofDepth(3));
+
+        assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    void finishedGameHasNoBestMove() {
+        // Fool's mate
+        ChessGame game = ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w - - 1 3");
+        SearchResult result = new SearchEngine().search(game, SearchLimits.ofDepth(3));
+
+        assertNull(result.bestMove());
+    }
+}
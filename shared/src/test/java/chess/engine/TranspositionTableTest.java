@@ -0,0 +1,81 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    void storedEntryCanBeFound() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            TranspositionTable table = new TranspositionTable(1, offHeap);
+            assertEquals(offHeap, table.isOffHeap());
+            assertEquals(1024 * 1024 / 16, table.capacity());
+
+            long key = 0x1234_5678_9ABC_DEF0L;
+            int move = PackedMove.of(12, 28, null, false);
+            table.store(key, move, -250, 7, TranspositionTable.BOUND_LOWER);
+
+            long entry = table.probe(key);
+            assertNotEquals(TranspositionTable.NO_ENTRY, entry);
+            assertEquals(move, TranspositionTable.move(entry));
+            assertEquals(-250, TranspositionTable.score(entry));
+            assertEquals(7, TranspositionTable.depth(entry));
+            assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+
+            // A key in the same bucket is not mistaken for the stored one
+            assertEquals(TranspositionTable.NO_ENTRY, table.probe(key ^ (1L << 40)));
+
+            table.clear();
+            assertEquals(TranspositionTable.NO_ENTRY, table.probe(key));
+        }
+    }
+
+    @Test
+    void shallowAndOldEntriesAreReplacedFirst() {
+        TranspositionTable table = new TranspositionTable(1);
+        // Keys differing only above the index bits all share one bucket of four entries
+        long bucketKey = 42;
+        for (int i = 0; i < 4; i++) {
+            table.store(bucketKey + ((long) i << 40), PackedMove.NONE, 0, 10 + i, TranspositionTable.BOUND_EXACT);
+        }
+        table.store(bucketKey + (4L << 40), PackedMove.NONE, 0, 20, TranspositionTable.BOUND_EXACT);
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(bucketKey));
+        assertNotEquals(TranspositionTable.NO_ENTRY, table.probe(bucketKey + (1L << 40)));
+
+        // Two searches later, the deepest entry from before is worth less than a shallow new one
+        table.newSearch();
+        table.newSearch();
+        table.store(bucketKey + (5L << 40), PackedMove.NONE, 0, 1, TranspositionTable.BOUND_EXACT);
+        table.store(bucketKey + (6L << 40), PackedMove.NONE, 0, 1, TranspositionTable.BOUND_EXACT);
+        assertNotEquals(TranspositionTable.NO_ENTRY, table.probe(bucketKey + (5L << 40)));
+        assertNotEquals(TranspositionTable.NO_ENTRY, table.probe(bucketKey + (6L << 40)));
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(bucketKey + (1L << 40)));
+    }
+
+    @Test
+    void storeWithoutMoveKeepsOldMove() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = PackedMove.of(6, 21, null, false);
+        table.store(99, move, 30, 4, TranspositionTable.BOUND_EXACT);
+        table.store(99, PackedMove.NONE, -10, 5, TranspositionTable.BOUND_UPPER);
+
+        long entry = table.probe(99);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+    }
+
+    @Test
+    void sharedTableSpeedsUpRepeatedSearch() {
+        ChessGame game = ChessGame.fromFen("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w - - 2 3");
+        TranspositionTable table = new TranspositionTable(4, true);
+        SearchResult firstResult = new SearchEngine(new MaterialEvaluator(), table).search(game, SearchLimits.ofDepth(4));
+        SearchResult secondResult = new SearchEngine(new MaterialEvaluator(), table).search(game, SearchLimits.ofDepth(4));
+
+        assertEquals(firstResult.score(), secondResult.score());
+        assertTrue(secondResult.nodes() < firstResult.nodes());
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameDataCodecTest {
+
+    @Test
+    void gameDataRoundTrips() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        GameData gameData = new GameData(42, "whitePlayer", null, "Ünïcode game", game, true);
+
+        GameData decodedGameData = GameDataCodec.decode(GameDataCodec.encode(gameData));
+        assertEquals(gameData, decodedGameData);
+        assertEquals(game.toFen(), decodedGameData.game().toFen());
+
+        GameData gameWithoutBoard = new GameData(7, null, null, "empty", null, false);
+        assertEquals(gameWithoutBoard, GameDataCodec.decode(GameDataCodec.encode(gameWithoutBoard)));
+    }
+
+    @Test
+    void encodingIsMuchSmallerThanJson() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        // Both sides shuffle a knight out and back, giving a 40 move history as a real game would have
+        ChessMove[] knightMoves = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 3), new ChessPosition(8, 2), null),
+        };
+        for (int ply = 0; ply < 40; ply++) {
+            game.makeMove(knightMoves[ply % knightMoves.length]);
+        }
+        GameData gameData = new GameData(1, "whitePlayer", "blackPlayer", "a game", game, true);
+        int encodedSize = GameDataCodec.encode(gameData).length;
+        int jsonSize = new Gson().toJson(gameData).length();
+        assertTrue(encodedSize * 10 < jsonSize, "Encoded size " + encodedSize + " vs JSON size " + jsonSize);
+    }
+}